@@ -0,0 +1,55 @@
+package org.barrikeit.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publica el porcentaje de aciertos de la caché de segundo nivel de Hibernate, por región, y el de
+ * la caché de consultas. Los contadores de aciertos y fallos de los que se calculan los publica
+ * Spring Boot con {@code hibernate-micrometer} ({@code hibernate.second.level.cache.requests}).
+ */
+@Configuration
+public class HibernateCacheMetricsConfiguration {
+
+  private static final String REGION_HIT_RATIO = "hibernate.second.level.cache.hit.ratio";
+  private static final String QUERY_HIT_RATIO = "hibernate.query.cache.hit.ratio";
+
+  @Bean
+  MeterBinder hibernateCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    return registry -> {
+      for (String region : statistics.getSecondLevelCacheRegionNames()) {
+        Gauge.builder(
+                REGION_HIT_RATIO,
+                statistics,
+                stats -> {
+                  CacheRegionStatistics regionStatistics = stats.getCacheRegionStatistics(region);
+                  return regionStatistics == null
+                      ? Double.NaN
+                      : hitRatio(regionStatistics.getHitCount(), regionStatistics.getMissCount());
+                })
+            .tag("region", region)
+            .description("Aciertos sobre el total de lecturas de la región")
+            .register(registry);
+      }
+      Gauge.builder(
+              QUERY_HIT_RATIO,
+              statistics,
+              stats -> hitRatio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()))
+          .description("Aciertos sobre el total de lecturas de la caché de consultas")
+          .register(registry);
+    };
+  }
+
+  /** Aciertos sobre el total de lecturas, o {@code NaN} si aún no hay lecturas. */
+  private static double hitRatio(long hits, long misses) {
+    long total = hits + misses;
+    return total == 0 ? Double.NaN : (double) hits / total;
+  }
+}
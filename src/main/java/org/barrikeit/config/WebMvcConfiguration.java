@@ -8,12 +8,14 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.HandlerAdapter;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.DefaultServletHandlerConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -47,6 +49,15 @@ public class WebMvcConfiguration implements WebMvcConfigurer {
     return new RequestMappingHandlerAdapter();
   }
 
+  /** AsyncConfiguration, usada por las respuestas en streaming */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+    executor.setVirtualThreads(true);
+    configurer.setTaskExecutor(executor);
+    configurer.setDefaultTimeout(ConfigurationConstants.ASYNC_REQUEST_TIMEOUT);
+  }
+
   @Override
   public void configureDefaultServletHandling(DefaultServletHandlerConfigurer configurer) {
     configurer.enable(ConfigurationConstants.DEFAULT_SERVLET_NAME);
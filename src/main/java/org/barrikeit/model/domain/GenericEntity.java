@@ -3,12 +3,16 @@ package org.barrikeit.model.domain;
 import jakarta.persistence.*;
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.Objects;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.barrikeit.util.TimeUtil;
+import org.barrikeit.util.constants.EntityConstants;
+import org.barrikeit.util.filter.SearchResultCacheListener;
 import org.springframework.data.domain.Persistable;
 
 @SuperBuilder(toBuilder = true)
@@ -17,14 +21,60 @@ import org.springframework.data.domain.Persistable;
 @Getter
 @Setter
 @MappedSuperclass
+@EntityListeners(SearchResultCacheListener.class)
 public abstract class GenericEntity<I extends Serializable>
     implements Serializable, Persistable<I> {
   @Serial private static final long serialVersionUID = 1L;
 
+  /**
+   * Identificador generado con una secuencia. Cada entidad declara su secuencia con un {@link
+   * SequenceGenerator} llamado {@link EntityConstants#ID_GENERATOR} y el tamaño de bloque que
+   * necesite; Hibernate reserva los identificadores por bloques, de modo que las inserciones no
+   * necesitan leer el identificador generado y pueden enviarse en lotes.
+   */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = EntityConstants.ID_GENERATOR)
   protected I id;
 
+  /**
+   * Versión de la fila para el bloqueo optimista. Hibernate la incrementa en cada actualización y
+   * comprueba en el {@code UPDATE} que no ha cambiado desde que se leyó la entidad; los
+   * controladores genéricos la exponen como {@code ETag}.
+   */
+  @Version
+  @Column(name = EntityConstants.VERSION, nullable = false)
+  protected Long version;
+
+  /** Fecha de creación de la fila. Se asigna al insertar la entidad y no cambia. */
+  @Column(
+      name = EntityConstants.CREATED_AT_COLUMN,
+      columnDefinition = "TIMESTAMP WITH TIME ZONE",
+      nullable = false,
+      updatable = false)
+  protected LocalDateTime createdAt;
+
+  /**
+   * Fecha de la última modificación de la fila. Se asigna al insertar y en cada actualización, y
+   * las escrituras masivas de los servicios genéricos la actualizan también; es la marca con la
+   * que los clientes obtienen solo los cambios desde su última sincronización.
+   */
+  @Column(
+      name = EntityConstants.UPDATED_AT_COLUMN,
+      columnDefinition = "TIMESTAMP WITH TIME ZONE",
+      nullable = false)
+  protected LocalDateTime updatedAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = TimeUtil.localDateTimeNow();
+    updatedAt = createdAt;
+  }
+
+  @PreUpdate
+  protected void onUpdate() {
+    updatedAt = TimeUtil.localDateTimeNow();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -3,6 +3,7 @@ package org.barrikeit.model.domain;
 import jakarta.persistence.AttributeOverride;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -15,6 +16,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 import org.barrikeit.util.constants.EntityConstants;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Getter
 @Setter
@@ -22,7 +26,13 @@ import org.barrikeit.util.constants.EntityConstants;
 @AllArgsConstructor
 @SuperBuilder(toBuilder = true)
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityConstants.LOCATIONS)
 @Table(name = EntityConstants.LOCATIONS)
+@SequenceGenerator(
+    name = EntityConstants.ID_GENERATOR,
+    sequenceName = EntityConstants.LOCATIONS_SEQ,
+    allocationSize = EntityConstants.LOCATIONS_ALLOCATION_SIZE)
 @AttributeOverride(
     name = EntityConstants.ID,
     column = @Column(name = EntityConstants.ID_LOCATION, nullable = false))
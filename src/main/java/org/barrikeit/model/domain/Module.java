@@ -12,6 +12,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 import org.barrikeit.util.constants.EntityConstants;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @SuperBuilder(toBuilder = true)
 @AllArgsConstructor
@@ -19,7 +22,13 @@ import org.barrikeit.util.constants.EntityConstants;
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityConstants.MODULES)
 @Table(name = EntityConstants.MODULES)
+@SequenceGenerator(
+    name = EntityConstants.ID_GENERATOR,
+    sequenceName = EntityConstants.MODULES_SEQ,
+    allocationSize = EntityConstants.MODULES_ALLOCATION_SIZE)
 @AttributeOverride(
     name = EntityConstants.ID,
     column = @Column(name = EntityConstants.ID_MODULE, nullable = false))
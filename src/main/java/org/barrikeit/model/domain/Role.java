@@ -14,6 +14,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 import org.barrikeit.util.constants.EntityConstants;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @SuperBuilder(toBuilder = true)
 @AllArgsConstructor
@@ -21,7 +24,13 @@ import org.barrikeit.util.constants.EntityConstants;
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityConstants.ROLES)
 @Table(name = EntityConstants.ROLES)
+@SequenceGenerator(
+    name = EntityConstants.ID_GENERATOR,
+    sequenceName = EntityConstants.ROLES_SEQ,
+    allocationSize = EntityConstants.ROLES_ALLOCATION_SIZE)
 @AttributeOverride(
     name = EntityConstants.ID,
     column = @Column(name = EntityConstants.ID_ROLE, nullable = false))
@@ -37,8 +46,9 @@ public class Role extends GenericCodeEntity<Integer, String> {
   private String name;
 
   @ManyToMany
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityConstants.ROLE_MODULES)
   @JoinTable(
-      name = "role_modules",
+      name = EntityConstants.ROLE_MODULES,
       joinColumns = @JoinColumn(name = "id_role"),
       inverseJoinColumns = @JoinColumn(name = "id_module"))
   private Set<Module> modules = new LinkedHashSet<>();
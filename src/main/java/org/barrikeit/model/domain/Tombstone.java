@@ -0,0 +1,53 @@
+package org.barrikeit.model.domain;
+
+import jakarta.persistence.*;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.barrikeit.util.constants.EntityConstants;
+
+/**
+ * Registro de la eliminación de una entidad. Los servicios genéricos lo guardan al eliminar, de
+ * modo que la sincronización por cambios puede informar a los clientes de las filas que ya no
+ * existen.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = EntityConstants.TOMBSTONES)
+@SequenceGenerator(
+    name = EntityConstants.ID_GENERATOR,
+    sequenceName = EntityConstants.TOMBSTONES_SEQ,
+    allocationSize = EntityConstants.TOMBSTONES_ALLOCATION_SIZE)
+public class Tombstone implements Serializable {
+  @Serial private static final long serialVersionUID = 1L;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = EntityConstants.ID_GENERATOR)
+  @Column(name = EntityConstants.ID_TOMBSTONE, nullable = false)
+  private Long id;
+
+  /** Nombre JPA de la entidad eliminada. */
+  @Column(name = "entity", length = 100, nullable = false)
+  private String entity;
+
+  /** Clave con la que los clientes identifican la entidad: su código o su identificador. */
+  @Column(name = "entity_key", length = 100, nullable = false)
+  private String key;
+
+  @Column(name = "deleted_at", columnDefinition = "TIMESTAMP WITH TIME ZONE", nullable = false)
+  private LocalDateTime deletedAt;
+
+  @Override
+  public String toString() {
+    return "Tombstone{" + "entity=" + entity + ", key=" + key + '}';
+  }
+}
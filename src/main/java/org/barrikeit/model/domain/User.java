@@ -15,6 +15,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 import org.barrikeit.util.constants.EntityConstants;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @SuperBuilder(toBuilder = true)
 @AllArgsConstructor
@@ -22,7 +25,12 @@ import org.barrikeit.util.constants.EntityConstants;
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
 @Table(name = EntityConstants.USERS)
+@SequenceGenerator(
+    name = EntityConstants.ID_GENERATOR,
+    sequenceName = EntityConstants.USERS_SEQ,
+    allocationSize = EntityConstants.USERS_ALLOCATION_SIZE)
 @AttributeOverride(
     name = EntityConstants.ID,
     column = @Column(name = EntityConstants.ID_USER, nullable = false))
@@ -96,8 +104,9 @@ public class User extends GenericCodeEntity<Long, UUID> {
   private String banReason;
 
   @ManyToMany
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityConstants.USER_ROLES)
   @JoinTable(
-      name = "user_roles",
+      name = EntityConstants.USER_ROLES,
       joinColumns = @JoinColumn(name = "id_user"),
       inverseJoinColumns = @JoinColumn(name = "id_role"))
   private Set<Role> roles = new LinkedHashSet<>();
@@ -1,8 +1,14 @@
 package org.barrikeit.model.repository;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.barrikeit.model.domain.GenericCodeEntity;
+import org.barrikeit.util.constants.EntityConstants;
+import org.barrikeit.util.filter.FilterSpecification;
+import org.barrikeit.util.filter.SearchCriteria;
+import org.barrikeit.util.filter.SearchOperation;
 import org.springframework.data.repository.NoRepositoryBean;
 
 /**
@@ -22,4 +28,21 @@ public interface GenericCodeRepository<
     extends GenericRepository<E, I> {
 
   Optional<E> findByCode(C code);
+
+  /**
+   * Deletes the entities with the given codes in a single statement, without loading them.
+   *
+   * @param codes the codes of the entities to delete.
+   * @return the number of deleted entities.
+   * @see #bulkDeleteByIds(Collection)
+   */
+  default long bulkDeleteByCodes(Collection<C> codes) {
+    return delete(
+        new FilterSpecification<>(
+            SearchCriteria.builder()
+                .key(EntityConstants.CODE)
+                .operation(SearchOperation.IN)
+                .value(List.copyOf(codes))
+                .build()));
+  }
 }
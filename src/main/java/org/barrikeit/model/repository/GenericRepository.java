@@ -1,7 +1,13 @@
 package org.barrikeit.model.repository;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
 import org.barrikeit.model.domain.GenericEntity;
+import org.barrikeit.util.constants.EntityConstants;
+import org.barrikeit.util.filter.FilterSpecification;
+import org.barrikeit.util.filter.SearchCriteria;
+import org.barrikeit.util.filter.SearchOperation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
@@ -18,4 +24,22 @@ import org.springframework.data.repository.NoRepositoryBean;
  */
 @NoRepositoryBean
 public interface GenericRepository<E extends GenericEntity<I>, I extends Serializable>
-    extends JpaRepository<E, I>, JpaSpecificationExecutor<E> {}
+    extends JpaRepository<E, I>, JpaSpecificationExecutor<E> {
+
+  /**
+   * Deletes the entities with the given identifiers in a single statement, without loading them.
+   * The rows of the join tables owned by the entity are removed first by Hibernate.
+   *
+   * @param ids the identifiers of the entities to delete.
+   * @return the number of deleted entities.
+   */
+  default long bulkDeleteByIds(Collection<I> ids) {
+    return delete(
+        new FilterSpecification<>(
+            SearchCriteria.builder()
+                .key(EntityConstants.ID)
+                .operation(SearchOperation.IN)
+                .value(List.copyOf(ids))
+                .build()));
+  }
+}
@@ -1,7 +1,33 @@
 package org.barrikeit.model.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import org.barrikeit.model.domain.Role;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface RoleRepository extends GenericCodeRepository<Role, Integer, String> {}
+public interface RoleRepository extends GenericCodeRepository<Role, Integer, String> {
+
+  /**
+   * Busca un rol por su código. El resultado se guarda en la caché de consultas de Hibernate y el
+   * rol en la caché de segundo nivel, de modo que las búsquedas repetidas no consultan la base de
+   * datos hasta que se modifica la tabla de roles.
+   */
+  @Override
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  Optional<Role> findByCode(String code);
+
+  /**
+   * Busca en una sola consulta los roles con los códigos indicados. Como {@link
+   * #findByCode(String)}, el resultado se guarda en la caché de consultas.
+   *
+   * @param codes Códigos de los roles.
+   * @return Los roles encontrados; los códigos que no existen se omiten.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<Role> findAllByCodeIn(Collection<String> codes);
+}
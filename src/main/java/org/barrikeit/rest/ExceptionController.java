@@ -10,10 +10,12 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import lombok.extern.log4j.Log4j2;
+import org.barrikeit.util.constants.ExceptionConstants;
 import org.barrikeit.util.exceptions.GenericException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.NoSuchMessageException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -71,6 +73,25 @@ public class ExceptionController {
     return ResponseEntity.status(ex.getStatusCode()).body(problem);
   }
 
+  /**
+   * Handle optimistic locking failures: the entity was modified by another request between the
+   * read and the update.
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ProblemDetail> handleOptimisticLockingFailure(
+      OptimisticLockingFailureException ex, Locale locale) {
+    log.error("OptimisticLockingFailureException: {}", ex.getMessage(), ex);
+
+    ProblemDetail problem =
+        ProblemDetail.forStatusAndDetail(
+            HttpStatus.CONFLICT,
+            resolveMessageOrKey(ExceptionConstants.ERROR_CONCURRENT_MODIFICATION, locale));
+    problem.setType(URI.create(""));
+    problem.setTitle(resolveMessageOrKey(ExceptionConstants.CONFLICT, locale));
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(problem);
+  }
+
   /**
    * Handle validation errors:
    *
@@ -1,18 +1,26 @@
 package org.barrikeit.rest;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import java.io.Serializable;
+import java.util.Set;
 import lombok.extern.log4j.Log4j2;
 import org.barrikeit.model.domain.GenericCodeEntity;
 import org.barrikeit.rest.dto.GenericDto;
 import org.barrikeit.rest.dto.Response;
 import org.barrikeit.service.GenericCodeService;
+import org.barrikeit.util.constants.UtilConstants;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * <b>Generic Code Controller Class</b>
@@ -44,14 +52,24 @@ public abstract class GenericCodeController<
   }
 
   /**
-   * Retrieves a specific DTO by its code.
+   * Retrieves a specific DTO by its code. The response carries the version of the entity and the
+   * requested fields as its {@code ETag}; when the {@code If-None-Match} header matches it, only
+   * the version is read and a {@code 304 Not Modified} is returned without a body.
    *
    * @param code the code of the entity to retrieve.
-   * @return a response entity containing the requested DTO.
+   * @param fields the DTO fields to return. All fields are returned when omitted.
+   * @param request the current request, for the conditional headers.
+   * @return a response entity containing the requested DTO, or {@code null} if not modified.
    */
   @GetMapping("/code/{code}")
-  public Response<D> findByCode(@PathVariable("code") C code) {
-    return Response.ok(service.findByCode(code));
+  public Response<D> findByCode(
+      @PathVariable("code") C code,
+      @RequestParam(required = false) Set<String> fields,
+      WebRequest request) {
+    if (request.checkNotModified(toETag(service.findVersionByCode(code), fields))) {
+      return null;
+    }
+    return Response.ok(service.findByCode(code, fields));
   }
 
   /**
@@ -59,11 +77,36 @@ public abstract class GenericCodeController<
    *
    * @param code the code of the entity to update.
    * @param dto the DTO containing the updated entity information.
+   * @param ifMatch the {@code ETag} the client read; the update fails with {@code 412
+   *     Precondition Failed} if the entity has changed since. Optional.
    * @return a response entity containing the updated DTO.
    */
   @PutMapping("/code/{code}/update")
-  public Response<D> updateByCode(@PathVariable("code") C code, @RequestBody D dto) {
-    return Response.ok(service.updateByCode(code, dto));
+  public Response<D> updateByCode(
+      @PathVariable("code") C code,
+      @RequestBody D dto,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return Response.ok(service.updateByCode(code, dto, fromETag(ifMatch)));
+  }
+
+  /**
+   * Partially updates an entity identified by its code with a JSON Merge Patch. Only the fields
+   * present in the patch change; a {@code null} value clears the field.
+   *
+   * @param code the code of the entity to update.
+   * @param patch the merge patch.
+   * @param ifMatch the {@code ETag} the client read; the update fails with {@code 412
+   *     Precondition Failed} if the entity has changed since. Optional.
+   * @return a response entity containing the updated DTO.
+   */
+  @PatchMapping(
+      value = "/code/{code}",
+      consumes = {UtilConstants.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  public Response<D> patchByCode(
+      @PathVariable("code") C code,
+      @RequestBody JsonNode patch,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return Response.ok(service.patchByCode(code, patch, fromETag(ifMatch)));
   }
 
   /**
@@ -1,22 +1,46 @@
 package org.barrikeit.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.text.MessageFormat;
 import java.util.List;
-import lombok.AllArgsConstructor;
+import java.util.Set;
+import java.util.TreeSet;
 import lombok.extern.log4j.Log4j2;
 import org.barrikeit.model.domain.GenericEntity;
+import org.barrikeit.rest.dto.BatchResult;
+import org.barrikeit.rest.dto.ChangeSet;
 import org.barrikeit.rest.dto.GenericDto;
 import org.barrikeit.rest.dto.Response;
 import org.barrikeit.service.GenericService;
+import org.barrikeit.util.batch.BatchItem;
+import org.barrikeit.util.batch.JsonBatchReader;
+import org.barrikeit.util.constants.UtilConstants;
+import org.barrikeit.util.exceptions.PreconditionFailedException;
+import org.barrikeit.util.filter.SparseFieldset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * <b>Generic Controller Class</b>
@@ -31,32 +55,77 @@ import org.springframework.web.bind.annotation.RequestMapping;
  * @param <D> the DTO type that extends {@link GenericDto}.
  */
 @Log4j2
-@AllArgsConstructor
 @RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
 public abstract class GenericController<
     E extends GenericEntity<S>, S extends Serializable, D extends GenericDto> {
 
+  /** Separates the version from the sparse fieldset in an {@code ETag}. */
+  private static final String ETAG_FIELDS_SEPARATOR = ";";
+
   private final GenericService<E, S, D> service;
 
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private Validator validator;
+
+  protected GenericController(GenericService<E, S, D> service) {
+    this.service = service;
+  }
+
   /**
    * Retrieves a list of all DTOs.
    *
+   * @param fields the DTO fields to return, for example {@code code,username,location.country}.
+   *     Only the columns of those fields are loaded. All fields are returned when omitted.
    * @return a response entity containing a list of DTOs.
    */
   @GetMapping
-  public Response<List<D>> findAll() {
-    return Response.ok(service.findAll());
+  public Response<List<D>> findAll(@RequestParam(required = false) Set<String> fields) {
+    return Response.ok(service.findAll(fields));
   }
 
   /**
-   * Retrieves a specific DTO by its identifier.
+   * Retrieves a specific DTO by its identifier. The response carries the version of the entity and
+   * the requested fields as its {@code ETag}; when the {@code If-None-Match} header matches it,
+   * only the version is read and a {@code 304 Not Modified} is returned without a body.
    *
    * @param id the identifier of the entity to retrieve.
-   * @return a response entity containing the requested DTO.
+   * @param fields the DTO fields to return. All fields are returned when omitted.
+   * @param request the current request, for the conditional headers.
+   * @return a response entity containing the requested DTO, or {@code null} if not modified.
    */
   @GetMapping("/id/{id}")
-  public Response<D> findById(@PathVariable("id") S id) {
-    return Response.ok(service.find(id));
+  public Response<D> findById(
+      @PathVariable("id") S id,
+      @RequestParam(required = false) Set<String> fields,
+      WebRequest request) {
+    if (request.checkNotModified(toETag(service.findVersion(id), fields))) {
+      return null;
+    }
+    return Response.ok(service.find(id, fields));
+  }
+
+  /**
+   * Retrieves the entities created, modified or deleted after a date, so that clients can keep a
+   * local copy in sync by downloading only the changes. Changes are returned in pages: while a
+   * response carries a {@code next} cursor, the following page is requested with the same {@code
+   * since} and that cursor in {@code after}. The last page carries the {@code since} of the next
+   * sync.
+   *
+   * @param since the {@code since} of the previous sync, or a date in {@code dd/MM/yyyy HH:mm:ss}
+   *     format for the first one.
+   * @param after the {@code next} cursor of the previous page. Omitted for the first page.
+   * @param size the maximum number of modified and of deleted entities of the page. Optional.
+   * @param fields the DTO fields to return. All fields are returned when omitted.
+   * @return a response entity containing the changed DTOs, the keys of the deleted entities and the
+   *     cursor of the next page.
+   */
+  @GetMapping("/changes")
+  public Response<ChangeSet<D>> findChanges(
+      @RequestParam String since,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(required = false) Set<String> fields) {
+    return Response.ok(service.findChanges(since, after, size, fields));
   }
 
   /**
@@ -75,11 +144,36 @@ public abstract class GenericController<
    *
    * @param id the identifier of the entity to update.
    * @param dto the DTO containing the updated entity information.
+   * @param ifMatch the {@code ETag} the client read; the update fails with {@code 412
+   *     Precondition Failed} if the entity has changed since. Optional.
    * @return a response entity containing the updated DTO.
    */
   @PutMapping("/id/{id}/update")
-  public Response<D> update(@PathVariable("id") S id, @RequestBody D dto) {
-    return Response.ok(service.update(id, dto));
+  public Response<D> update(
+      @PathVariable("id") S id,
+      @RequestBody D dto,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return Response.ok(service.update(id, dto, fromETag(ifMatch)));
+  }
+
+  /**
+   * Partially updates an entity identified by its identifier with a JSON Merge Patch. Only the
+   * fields present in the patch change; a {@code null} value clears the field.
+   *
+   * @param id the identifier of the entity to update.
+   * @param patch the merge patch.
+   * @param ifMatch the {@code ETag} the client read; the update fails with {@code 412
+   *     Precondition Failed} if the entity has changed since. Optional.
+   * @return a response entity containing the updated DTO.
+   */
+  @PatchMapping(
+      value = "/id/{id}",
+      consumes = {UtilConstants.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  public Response<D> patch(
+      @PathVariable("id") S id,
+      @RequestBody JsonNode patch,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return Response.ok(service.patch(id, patch, fromETag(ifMatch)));
   }
 
   /**
@@ -93,4 +187,126 @@ public abstract class GenericController<
     service.delete(id);
     return Response.ok("Eliminado con éxito", null);
   }
+
+  /**
+   * Saves the DTOs of a JSON array. The body is read item by item as it arrives and the items are
+   * committed in chunks, so a failing item does not stop the rest of the batch.
+   *
+   * @param body the JSON array of DTOs.
+   * @return a response entity containing the result of each item, with the key of the created
+   *     entity.
+   * @throws IOException if the body cannot be read.
+   */
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Response<List<BatchResult>> saveAll(InputStream body) throws IOException {
+    try (JsonBatchReader<D> items =
+        new JsonBatchReader<>(
+            objectMapper, body, (index, node) -> BatchItem.of(index, null, readDto(node)))) {
+      return Response.ok(service.saveAll(items));
+    }
+  }
+
+  /**
+   * Updates the entities identified by the key property of each DTO of a JSON array, the
+   * identifier or the code of the entity.
+   *
+   * @param body the JSON array of DTOs, each one with its key property.
+   * @return a response entity containing the result of each item.
+   * @throws IOException if the body cannot be read.
+   */
+  @PutMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Response<List<BatchResult>> updateAll(InputStream body) throws IOException {
+    try (JsonBatchReader<D> items =
+        new JsonBatchReader<>(
+            objectMapper,
+            body,
+            (index, node) ->
+                BatchItem.of(
+                    index, readKey(node.get(service.getBatchKeyProperty())), readDto(node)))) {
+      return Response.ok(service.updateAll(items));
+    }
+  }
+
+  /**
+   * Deletes the entities identified by the keys of a JSON array, the identifiers or the codes of
+   * the entities.
+   *
+   * @param body the JSON array of keys.
+   * @return a response entity containing the result of each item.
+   * @throws IOException if the body cannot be read.
+   */
+  @DeleteMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Response<List<BatchResult>> deleteAll(InputStream body) throws IOException {
+    try (JsonBatchReader<D> items =
+        new JsonBatchReader<>(
+            objectMapper, body, (index, node) -> BatchItem.of(index, readKey(node), null))) {
+      return Response.ok(service.deleteAll(items));
+    }
+  }
+
+  /**
+   * Builds the strong {@code ETag} of an entity version. The body of a response also depends on
+   * the sparse fieldset, so the requested fields are part of the tag: each representation of the
+   * same version has its own validator.
+   *
+   * @param version the version of the entity.
+   * @param fields the DTO fields of the response, or an empty set for the whole DTO.
+   * @return the quoted version, followed by the sorted fields if any.
+   */
+  protected static String toETag(Long version, Set<String> fields) {
+    Set<String> normalized = SparseFieldset.normalize(fields);
+    if (normalized.isEmpty()) {
+      return "\"" + version + "\"";
+    }
+    String shape = String.join(",", new TreeSet<>(normalized));
+    return "\"" + version + ETAG_FIELDS_SEPARATOR + shape + "\"";
+  }
+
+  /**
+   * Reads the entity version of an {@code If-Match} header.
+   *
+   * @param ifMatch the header value, a single {@code ETag} built by {@link #toETag(Long, Set)}. The
+   *     fields of the tag are ignored: any representation of the version matches.
+   * @return the version, or {@code null} if the header is absent or {@code *}.
+   * @throws PreconditionFailedException if the header is not the {@code ETag} of a version.
+   */
+  protected static Long fromETag(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+      return null;
+    }
+    String tag = ifMatch.trim();
+    if (tag.startsWith("W/")) {
+      tag = tag.substring(2);
+    }
+    try {
+      tag = tag.substring(1, tag.length() - 1);
+      int fields = tag.indexOf(ETAG_FIELDS_SEPARATOR);
+      return Long.valueOf(fields < 0 ? tag : tag.substring(0, fields));
+    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+      throw new PreconditionFailedException("{0} no es un ETag válido.", ifMatch);
+    }
+  }
+
+  /** Reads and validates a DTO of a batch, as {@code @Valid} does for a single DTO. */
+  private D readDto(JsonNode node) throws JsonProcessingException {
+    @SuppressWarnings("unchecked")
+    Class<D> dtoClass =
+        (Class<D>)
+            ResolvableType.forClass(getClass()).as(GenericController.class).resolveGeneric(2);
+    D dto = objectMapper.treeToValue(node, dtoClass);
+    Set<ConstraintViolation<D>> violations = dto == null ? Set.of() : validator.validate(dto);
+    if (!violations.isEmpty()) {
+      throw new ConstraintViolationException(violations);
+    }
+    return dto;
+  }
+
+  /** Reads the key of an entity of a batch with the type of the service's key property. */
+  private Object readKey(JsonNode node) throws JsonProcessingException {
+    if (node == null || node.isNull()) {
+      throw new IllegalArgumentException(
+          MessageFormat.format("{0} es obligatorio.", service.getBatchKeyProperty()));
+    }
+    return objectMapper.treeToValue(node, service.getBatchKeyType());
+  }
 }
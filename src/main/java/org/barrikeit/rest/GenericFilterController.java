@@ -1,20 +1,37 @@
 package org.barrikeit.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.extern.log4j.Log4j2;
 import org.barrikeit.model.domain.GenericEntity;
+import org.barrikeit.rest.dto.CursorPage;
+import org.barrikeit.rest.dto.FacetCount;
 import org.barrikeit.rest.dto.GenericDto;
 import org.barrikeit.rest.dto.Response;
 import org.barrikeit.rest.filter.GenericFilter;
 import org.barrikeit.service.GenericFilterService;
+import org.barrikeit.util.constants.UtilConstants;
+import org.barrikeit.util.filter.CountStrategy;
 import org.barrikeit.util.validation.SearchParams;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * <b>Generic Code Controller Class</b>
@@ -39,6 +56,8 @@ public abstract class GenericFilterController<
 
   private final GenericFilterService<E, I, D, F> service;
 
+  @Autowired private ObjectMapper objectMapper;
+
   protected GenericFilterController(GenericFilterService<E, I, D, F> service) {
     super(service);
     this.service = service;
@@ -50,13 +69,113 @@ public abstract class GenericFilterController<
    * @param page - Información de paginación para la búsqueda.
    * @param unpaged - Indica si la búsqueda debe ser paginada o no.
    * @param search - Cadena de búsqueda para filtrar las entidades.
+   * @param count - Estrategia de recuento del total: exact, none, estimated, cached o concurrent.
+   *     Si no se indica se usa la del servicio.
+   * @param fields - Campos del DTO que se devuelven; solo se consultan las columnas de esos campos.
+   *     Si no se indica se devuelve el DTO completo.
    * @return ResponseEntity con la página de resultados de la búsqueda.
    */
   @GetMapping
-  public Response<Page<D>> findAll(
+  public Response<Slice<D>> findAll(
       Pageable page,
       @RequestParam(required = false, defaultValue = "false") boolean unpaged,
+      @RequestParam(required = false) @Valid @SearchParams String search,
+      @RequestParam(required = false) String count,
+      @RequestParam(required = false) Set<String> fields) {
+    return Response.ok(
+        null, service.search(page, unpaged, search, CountStrategy.of(count), fields));
+  }
+
+  /**
+   * Método para obtener el número de entidades que cumplen un filtro para cada valor de una o
+   * varias facetas ({@code facet=location.country&facet=enabled}), sin devolver las entidades.
+   *
+   * @param search - Cadena de búsqueda para filtrar las entidades.
+   * @param facet - Atributos por los que se agrupan las entidades, que deben ser propiedades del
+   *     filtro.
+   * @return ResponseEntity con los valores de cada faceta y su número de entidades.
+   */
+  @GetMapping("/facets")
+  public Response<Map<String, List<FacetCount>>> facets(
+      @RequestParam(required = false) @Valid @SearchParams String search,
+      @RequestParam List<String> facet) {
+    return Response.ok(null, service.facets(search, facet));
+  }
+
+  /**
+   * Método para modificar todas las entidades que cumplen un filtro con un JSON Merge Patch, en
+   * una única sentencia y sin cargarlas.
+   *
+   * @param search - Cadena de búsqueda de las entidades a modificar, obligatoria.
+   * @param patch - Campos que se modifican con su nuevo valor; {@code null} vacía el campo.
+   * @return ResponseEntity con el número de entidades modificadas.
+   */
+  @PatchMapping(
+      params = "search",
+      consumes = {UtilConstants.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  public Response<Long> patchBySearch(
+      @RequestParam @Valid @SearchParams String search, @RequestBody Map<String, Object> patch) {
+    return Response.ok(null, service.patchBySearch(search, patch));
+  }
+
+  /**
+   * Método para eliminar todas las entidades que cumplen un filtro, en una única sentencia y sin
+   * cargarlas.
+   *
+   * @param search - Cadena de búsqueda de las entidades a eliminar, obligatoria.
+   * @return ResponseEntity con el número de entidades eliminadas.
+   */
+  @DeleteMapping(params = "search")
+  public Response<Long> deleteBySearch(@RequestParam @Valid @SearchParams String search) {
+    return Response.ok(null, service.deleteBySearch(search));
+  }
+
+  /**
+   * Método para obtener todas las entidades que cumplen un filtro en streaming, como JSON
+   * delimitado por saltos de línea (NDJSON). Cada elemento se escribe en cuanto se lee de la base
+   * de datos, de modo que la memoria usada no depende del tamaño del resultado.
+   *
+   * @param page - Ordenación de la búsqueda, el tamaño y el número de página se ignoran.
+   * @param search - Cadena de búsqueda para filtrar las entidades.
+   * @return ResponseEntity con el cuerpo que escribe los resultados en streaming.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> stream(
+      Pageable page, @RequestParam(required = false) @Valid @SearchParams String search) {
+    StreamingResponseBody body =
+        outputStream -> {
+          try (SequenceWriter writer =
+              objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)) {
+            service.searchStream(
+                page,
+                search,
+                dto -> {
+                  try {
+                    writer.write(dto);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Método para buscar entidades con un filtro paginando por clave (keyset). Se activa al recibir
+   * el parámetro {@code after}, que debe ir vacío en la primera petición y contener el cursor
+   * devuelto en cada página para obtener la siguiente.
+   *
+   * @param page - Tamaño de página y ordenación de la búsqueda.
+   * @param after - Cursor opaco de la última fila de la página anterior.
+   * @param search - Cadena de búsqueda para filtrar las entidades.
+   * @return ResponseEntity con la página de resultados y el cursor de la siguiente página.
+   */
+  @GetMapping(params = "after")
+  public Response<CursorPage<D>> findAllAfter(
+      Pageable page,
+      @RequestParam(required = false) String after,
       @RequestParam(required = false) @Valid @SearchParams String search) {
-    return Response.ok(null, service.search(page, unpaged, search));
+    return Response.ok(null, service.scroll(page, search, after));
   }
 }
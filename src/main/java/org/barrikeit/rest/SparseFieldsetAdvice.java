@@ -0,0 +1,84 @@
+package org.barrikeit.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.Set;
+import org.barrikeit.rest.dto.ChangeSet;
+import org.barrikeit.rest.dto.CursorPage;
+import org.barrikeit.rest.dto.Response;
+import org.barrikeit.util.filter.SparseFieldset;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Limita el JSON de las respuestas de los controladores genéricos a los campos pedidos en el
+ * parámetro {@code fields}. Se filtran los DTOs del contenido de la respuesta: el propio DTO, los
+ * elementos de una lista o los elementos de una página.
+ */
+@RestControllerAdvice(assignableTypes = GenericController.class)
+public class SparseFieldsetAdvice implements ResponseBodyAdvice<Object> {
+
+  private static final String FIELDS_PARAMETER = "fields";
+  private static final String CONTENT_PROPERTY = "content";
+
+  private final ObjectMapper objectMapper;
+
+  public SparseFieldsetAdvice(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public boolean supports(
+      MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return Response.class.isAssignableFrom(returnType.getParameterType())
+        && AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      Object body,
+      MethodParameter returnType,
+      MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      ServerHttpRequest request,
+      ServerHttpResponse response) {
+    if (!(body instanceof Response<?> responseBody)
+        || responseBody.getContent() == null
+        || !(request instanceof ServletServerHttpRequest servletRequest)) {
+      return body;
+    }
+    String[] values = servletRequest.getServletRequest().getParameterValues(FIELDS_PARAMETER);
+    if (values == null) {
+      return body;
+    }
+    Set<String> fields =
+        SparseFieldset.normalize(
+            Arrays.stream(values).flatMap(value -> Arrays.stream(value.split(","))).toList());
+    if (fields.isEmpty()) {
+      return body;
+    }
+
+    Object content = responseBody.getContent();
+    JsonNode tree = objectMapper.valueToTree(content);
+    SparseFieldset.filter(
+        content instanceof Slice<?>
+                || content instanceof CursorPage<?>
+                || content instanceof ChangeSet<?>
+            ? tree.get(CONTENT_PROPERTY)
+            : tree,
+        fields);
+    @SuppressWarnings("unchecked")
+    Response<Object> filtered = (Response<Object>) responseBody;
+    filtered.setContent(tree);
+    return filtered;
+  }
+}
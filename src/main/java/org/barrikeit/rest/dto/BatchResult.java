@@ -0,0 +1,29 @@
+package org.barrikeit.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Resultado de un elemento de una operación por lotes. */
+@Getter
+@AllArgsConstructor
+public class BatchResult {
+
+  /** Posición del elemento en el array recibido. */
+  private int index;
+
+  /** Identificador o código de la entidad, {@code null} si no se ha podido obtener. */
+  private Object key;
+
+  private boolean success;
+
+  /** Motivo del error, {@code null} si el elemento se ha procesado correctamente. */
+  private String message;
+
+  public static BatchResult ok(int index, Object key) {
+    return new BatchResult(index, key, true, null);
+  }
+
+  public static BatchResult failed(int index, Object key, String message) {
+    return new BatchResult(index, key, false, message);
+  }
+}
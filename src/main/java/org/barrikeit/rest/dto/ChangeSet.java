@@ -0,0 +1,36 @@
+package org.barrikeit.rest.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Cambios de una entidad desde una fecha, para la sincronización incremental de los clientes.
+ *
+ * @param <T> el tipo de los elementos modificados.
+ */
+@Getter
+@AllArgsConstructor
+public class ChangeSet<T> {
+
+  /** Elementos creados o modificados, ordenados por fecha de modificación. */
+  private List<T> content;
+
+  /**
+   * Claves (código o identificador) de los elementos eliminados. Se aplican antes que {@link
+   * #content}, ya que un elemento puede eliminarse y volver a crearse con la misma clave.
+   */
+  private List<Object> deleted;
+
+  /**
+   * Fecha que se debe enviar en el parámetro {@code since} para obtener los siguientes cambios,
+   * una vez leídas todas las páginas.
+   */
+  private String since;
+
+  /**
+   * Cursor opaco que se debe enviar en el parámetro {@code after}, junto con el mismo {@code
+   * since}, para obtener la siguiente página de cambios, o {@code null} si es la última.
+   */
+  private String next;
+}
@@ -0,0 +1,24 @@
+package org.barrikeit.rest.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Página de resultados de una búsqueda paginada por clave (keyset).
+ *
+ * @param <T> el tipo de los elementos de la página.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+  private List<T> content;
+
+  private int size;
+
+  private boolean hasNext;
+
+  /** Cursor opaco que se debe enviar en el parámetro {@code after} para obtener la siguiente. */
+  private String nextCursor;
+}
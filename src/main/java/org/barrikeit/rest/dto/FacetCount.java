@@ -0,0 +1,15 @@
+package org.barrikeit.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Número de entidades que cumplen una búsqueda para un valor de una faceta. */
+@Getter
+@AllArgsConstructor
+public class FacetCount {
+
+  /** Valor del atributo de la faceta, {@code null} para las entidades sin valor. */
+  private Object value;
+
+  private long count;
+}
@@ -6,9 +6,10 @@ import jakarta.validation.constraints.NotNull;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.Setter;
 import org.barrikeit.rest.dto.GenericDto;
@@ -16,7 +17,11 @@ import org.barrikeit.util.ReflectionUtil;
 import org.barrikeit.util.constants.UtilConstants;
 import org.barrikeit.util.exceptions.BadRequestException;
 import org.barrikeit.util.filter.SearchCriteria;
+import org.barrikeit.util.filter.SearchNode;
 import org.barrikeit.util.filter.SearchOperation;
+import org.barrikeit.util.filter.SearchPlan;
+import org.barrikeit.util.filter.SearchPlanCache;
+import org.barrikeit.util.filter.SearchRange;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -36,33 +41,80 @@ import org.springframework.util.ObjectUtils;
 @MappedSuperclass
 public abstract class GenericFilterBuilder<D extends GenericDto, F extends GenericFilter> {
 
+  /** Propiedades de cada clase de filtro, contra las que se validan los criterios. */
+  private static final ClassValue<Set<String>> FILTER_PROPERTIES =
+      new ClassValue<>() {
+        @Override
+        protected Set<String> computeValue(Class<?> type) {
+          return Arrays.stream(type.getDeclaredFields())
+              .map(Field::getName)
+              .collect(Collectors.toUnmodifiableSet());
+        }
+      };
+
   private List<SearchCriteria> params = new ArrayList<>();
   private List<SearchCriteria> filters = new ArrayList<>();
   private Pageable page;
+  private SearchPlan plan;
 
+  /**
+   * Construye el filtro a partir del plan de búsqueda cacheado para esta clase, búsqueda y
+   * ordenación. La interpretación de la cadena y la validación de la ordenación solo se ejecutan la
+   * primera vez que se recibe cada combinación; el filtro personalizado se aplica en cada petición
+   * sobre una copia de los criterios del plan.
+   */
   protected GenericFilterBuilder(Pageable page, String search) {
     this.page = page;
-    Pattern pattern = Pattern.compile(UtilConstants.EXPRESION_REGULAR_PARAMETROS);
-    Matcher matcher =
-        pattern.matcher(
-            (!ObjectUtils.isEmpty(search) ? search : "") + UtilConstants.SEPARADOR_CAMPOS_BUSQUEDA);
-    while (matcher.find()) {
-      with(matcher.group(1), matcher.group(2), matcher.group(3));
-    }
+    this.plan = SearchPlanCache.getPlan(getClass(), search, page.getSort(), this::buildPlan);
+    this.params = new ArrayList<>(plan.getParams());
+    this.filters = new ArrayList<>(plan.getFilters());
+    this.page = PageRequest.of(page.getPageNumber(), page.getPageSize(), plan.getSort());
     F filter = customFilter(filters);
     validateFilter(filter);
-    this.page = PageRequest.of(page.getPageNumber(), page.getPageSize(), getSort());
+  }
+
+  /**
+   * Interpreta la búsqueda y valida la ordenación para obtener un plan de búsqueda inmutable, que
+   * solo depende de la cadena de búsqueda y puede compartirse entre peticiones.
+   */
+  private SearchPlan buildPlan(SearchPlan.Key key) {
+    SearchPlanCache.ParsedSearch parsed = SearchPlanCache.parse(key.getSearch());
+    if (!parsed.isValid()) {
+      throw new BadRequestException("{0} no es una búsqueda válida.", key.getSearch());
+    }
+    SearchNode<SearchCriteria> expression =
+        parsed.getExpression() != null
+            ? parsed
+                .getExpression()
+                .map(term -> addCriteria(term.getKey(), term.getOperator(), term.getValue()))
+            : null;
+    return new SearchPlan(key, params, filters, expression, getSort());
   }
 
   /**
    * Método abstracto que debe ser implementado por las subclases para construir un filtro
    * personalizado de las propiedades de la @Entity
+   *
+   * <p>Se invoca en cada petición, por lo que puede depender de su contexto (usuario, fecha, etc.).
+   * Recibe una copia de los criterios de la búsqueda, a la que puede añadir o de la que puede
+   * retirar criterios. Los criterios son inmutables: para cambiar uno se sustituye en la lista por
+   * una copia creada con {@link SearchCriteria#toBuilder()}.
    */
   public abstract F customFilter(List<SearchCriteria> params);
 
   /** Método que añade un nuevo criterio de búsqueda a la lista de criterios. */
   public GenericFilterBuilder<D, F> with(
       @NotNull final String key, @NotNull String operator, @NotNull final Object value) {
+    addCriteria(key, operator, value);
+    return this;
+  }
+
+  /**
+   * Añade un nuevo criterio de búsqueda a la lista de criterios y devuelve el criterio añadido a
+   * los filtros, o {@code null} si la clave o el valor están vacíos.
+   */
+  private SearchCriteria addCriteria(
+      @NotNull final String key, @NotNull String operator, @NotNull final Object value) {
     SearchOperation searchOperation =
         !ObjectUtils.isEmpty(operator) && operator.length() == 1
             ? SearchOperation.getSimpleOperation(operator.charAt(0))
@@ -71,30 +123,123 @@ public abstract class GenericFilterBuilder<D extends GenericDto, F extends Gener
     if (null == searchOperation) {
       throw new BadRequestException("{0} no es un operador válido para la búsqueda.", operator);
     }
-    if (!ObjectUtils.isEmpty(key) && !ObjectUtils.isEmpty(value)) {
-      params.add(
-          SearchCriteria.builder().key(key.trim()).operation(searchOperation).value(value).build());
-      filters.add(
-          SearchCriteria.builder().key(key.trim()).operation(searchOperation).value(value).build());
+    Object criteriaValue = value;
+    SearchRange range = value instanceof String text ? SearchRange.parse(text) : null;
+    if (searchOperation == SearchOperation.EQUALITY && range != null) {
+      if (range.getFrom() == null && range.getTo() == null) {
+        throw new BadRequestException("{0} no es un rango válido para la búsqueda.", value);
+      }
+      searchOperation = SearchOperation.BETWEEN;
+      criteriaValue = range;
+    } else if (searchOperation == SearchOperation.EQUALITY && value instanceof String text) {
+      searchOperation = getWildcardOperation(text);
+      criteriaValue = stripWildcards(text);
+    } else if (searchOperation == SearchOperation.IN && value instanceof String text) {
+      criteriaValue = splitValues(key, text);
+    }
+    if (ObjectUtils.isEmpty(key) || ObjectUtils.isEmpty(criteriaValue)) {
+      return null;
     }
+    params.add(
+        SearchCriteria.builder()
+            .key(key.trim())
+            .operation(searchOperation)
+            .value(criteriaValue)
+            .build());
+    SearchCriteria filter =
+        SearchCriteria.builder()
+            .key(key.trim())
+            .operation(searchOperation)
+            .value(criteriaValue)
+            .build();
+    filters.add(filter);
+    return filter;
+  }
 
-    return this;
+  /**
+   * Obtiene la operación de una búsqueda por igualdad según los asteriscos del valor: {@code
+   * valor*} busca por prefijo, {@code *valor} por sufijo y {@code *valor*} por subcadena.
+   */
+  private static SearchOperation getWildcardOperation(String value) {
+    boolean startsWithAsterisk = value.startsWith(SearchOperation.ZERO_OR_MORE_REGEX);
+    boolean endsWithAsterisk =
+        value.length() > 1 && value.endsWith(SearchOperation.ZERO_OR_MORE_REGEX);
+    if (startsWithAsterisk && endsWithAsterisk) {
+      return SearchOperation.CONTAINS;
+    } else if (startsWithAsterisk) {
+      return SearchOperation.ENDS_WITH;
+    } else if (endsWithAsterisk) {
+      return SearchOperation.STARTS_WITH;
+    }
+    return SearchOperation.EQUALITY;
+  }
+
+  /** Elimina los asteriscos del principio y del final del valor. */
+  private static String stripWildcards(String value) {
+    int start = 0;
+    int end = value.length();
+    while (start < end && value.startsWith(SearchOperation.ZERO_OR_MORE_REGEX, start)) {
+      start++;
+    }
+    while (end > start && value.startsWith(SearchOperation.ZERO_OR_MORE_REGEX, end - 1)) {
+      end--;
+    }
+    return value.substring(start, end);
+  }
+
+  /**
+   * Separa los valores de una búsqueda por lista ({@code code@a,b,c}), descartando los vacíos y los
+   * repetidos.
+   */
+  private static List<String> splitValues(String key, String value) {
+    Set<String> values = new LinkedHashSet<>();
+    for (String item : value.split(UtilConstants.SEPARADOR_VALORES_BUSQUEDA)) {
+      if (!item.isBlank()) {
+        values.add(item.trim());
+      }
+    }
+    if (values.size() > UtilConstants.SEARCH_IN_MAX_VALUES) {
+      throw new BadRequestException(
+          "{0} supera el número máximo de valores de la búsqueda ({1}).",
+          key,
+          String.valueOf(UtilConstants.SEARCH_IN_MAX_VALUES));
+    }
+    return List.copyOf(values);
   }
 
   /** Método privado que valida las propiedades del filtro. */
   private void validateFilter(F filter) throws BadRequestException {
 
-    List<String> properties =
-        Arrays.stream(filter.getClass().getDeclaredFields()).map(Field::getName).toList();
+    Set<String> properties = FILTER_PROPERTIES.get(filter.getClass());
     params.forEach(
         param -> {
-          if (!properties.contains(param.getKey())) {
+          // En las rutas con puntos se valida la asociación raíz; el resto de la ruta se valida
+          // contra el modelo de la entidad al crear la consulta
+          String property = param.getKey().split("\\.")[0];
+          if (!properties.contains(property)) {
             throw new BadRequestException(
                 "{0} no es un filtro válido para la búsqueda.", param.getKey());
           }
         });
   }
 
+  /**
+   * Comprueba que una faceta corresponde a una propiedad del filtro. Igual que en los criterios de
+   * búsqueda, en las rutas con puntos se valida la asociación raíz y el resto de la ruta se valida
+   * contra el modelo de la entidad al crear la consulta.
+   *
+   * @param facet Ruta del atributo de la faceta.
+   * @throws BadRequestException si la propiedad no forma parte del filtro.
+   */
+  public void validateFacet(String facet) {
+    Class<?> filterClass = ReflectionUtil.getParameterizedTypeClass(this.getClass(), 1);
+    String property = facet.split("\\.")[0];
+    if (Arrays.stream(filterClass.getDeclaredFields())
+        .noneMatch(field -> field.getName().equals(property))) {
+      throw new BadRequestException("{0} no es una faceta válida para la búsqueda.", facet);
+    }
+  }
+
   /** Método que obtiene el objeto Sort que se utilizará para ordenar los resultados. */
   public Sort getSort() {
     List<Sort.Order> orders = new ArrayList<>();
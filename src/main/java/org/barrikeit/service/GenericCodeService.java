@@ -1,17 +1,44 @@
 package org.barrikeit.service;
 
+import static jakarta.persistence.metamodel.Attribute.PersistentAttributeType.BASIC;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
 import lombok.extern.log4j.Log4j2;
 import org.barrikeit.model.domain.GenericCodeEntity;
 import org.barrikeit.model.repository.GenericCodeRepository;
 import org.barrikeit.rest.dto.GenericDto;
 import org.barrikeit.service.mapper.GenericMapper;
+import org.barrikeit.util.TimeUtil;
 import org.barrikeit.util.constants.EntityConstants;
 import org.barrikeit.util.constants.ExceptionConstants;
+import org.barrikeit.util.exceptions.BadRequestException;
 import org.barrikeit.util.exceptions.NotFoundException;
+import org.barrikeit.util.exceptions.PreconditionFailedException;
+import org.barrikeit.util.filter.SearchResultCache;
+import org.barrikeit.util.filter.SparseFieldset;
+import org.springframework.core.ResolvableType;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * <b>Generic Code Service Class</b>
@@ -33,9 +60,14 @@ public abstract class GenericCodeService<
         D extends GenericDto>
     extends GenericService<E, I, D> {
 
+  /** Hooks of the service that {@link #upsertByCode(Collection)} cannot run. */
+  private static final Set<String> UPSERT_HOOKS = Set.of("createEntity", "updateEntity");
+
   private final GenericCodeRepository<E, I, C> repository;
   private final GenericMapper<E, D> mapper;
 
+  @PersistenceContext private EntityManager entityManager;
+
   protected GenericCodeService(
       GenericCodeRepository<E, I, C> repository, GenericMapper<E, D> mapper) {
     super(repository, mapper);
@@ -79,6 +111,27 @@ public abstract class GenericCodeService<
         .orElseThrow(() -> new NotFoundException(ExceptionConstants.NOT_FOUND, code));
   }
 
+  /**
+   * Retrieves a DTO by its code, loading only the requested fields.
+   *
+   * @param code the code of the entity to retrieve.
+   * @param fields the DTO fields to load, or an empty set to load the whole DTO.
+   * @return the DTO corresponding to the entity.
+   * @throws NotFoundException if the entity is not found.
+   */
+  @Transactional(readOnly = true)
+  public D findByCode(C code, Set<String> fields) {
+    Set<String> normalized = SparseFieldset.normalize(fields);
+    if (normalized.isEmpty()) {
+      return findByCode(code);
+    }
+    Specification<E> byCode = (root, query, cb) -> cb.equal(root.get(EntityConstants.CODE), code);
+    return getProjection(normalized).getResultList(byCode, Sort.unsorted(), 0, 1).stream()
+        .findFirst()
+        .map(mapper::toDto)
+        .orElseThrow(() -> new NotFoundException(ExceptionConstants.NOT_FOUND, code));
+  }
+
   /**
    * Retrieves an entity by its identifier.
    *
@@ -101,11 +154,71 @@ public abstract class GenericCodeService<
    */
   @Transactional
   public D updateByCode(C code, D dto) {
+    return updateByCode(code, dto, null);
+  }
+
+  /**
+   * Updates an existing entity identified by its code with the provided DTO, if it is still at
+   * the expected version.
+   *
+   * @param code the code of the entity to update.
+   * @param dto the DTO containing the updated entity information.
+   * @param version the version the client read, or {@code null} to update any version.
+   * @return the updated DTO.
+   * @throws PreconditionFailedException if the entity is at another version.
+   */
+  @Transactional
+  public D updateByCode(C code, D dto, Long version) {
     E entity = findEntityByCode(code);
-    mapper.updateEntity(dto, entity);
+    checkVersion(entity, version);
+    updateEntity(entity, dto);
     return mapper.toDto(repository.save(entity));
   }
 
+  /**
+   * Retrieves the version of an entity by its code, without loading the entity.
+   *
+   * @param code the code of the entity.
+   * @return the version of the entity.
+   * @throws NotFoundException if the entity is not found.
+   */
+  @Transactional(readOnly = true)
+  public Long findVersionByCode(C code) {
+    return findVersion((root, query, cb) -> cb.equal(root.get(EntityConstants.CODE), code), code);
+  }
+
+  /**
+   * Applies a JSON Merge Patch to the entity identified by its code. Only the fields present in
+   * the patch change, and only the modified columns are written.
+   *
+   * @param code the code of the entity to update.
+   * @param patch the merge patch, a JSON object.
+   * @return the updated DTO.
+   * @throws NotFoundException if the entity is not found.
+   */
+  @Transactional
+  public D patchByCode(C code, JsonNode patch) {
+    return patchByCode(code, patch, null);
+  }
+
+  /**
+   * Applies a JSON Merge Patch to the entity identified by its code, if it is still at the
+   * expected version.
+   *
+   * @param code the code of the entity to update.
+   * @param patch the merge patch, a JSON object.
+   * @param version the version the client read, or {@code null} to update any version.
+   * @return the updated DTO.
+   * @throws PreconditionFailedException if the entity is at another version.
+   */
+  @Transactional
+  public D patchByCode(C code, JsonNode patch, Long version) {
+    E entity = findEntityByCode(code);
+    checkVersion(entity, version);
+    applyPatch(entity, patch);
+    return mapper.toDto(entity);
+  }
+
   /**
    * Deletes an entity identified by its code.
    *
@@ -113,7 +226,186 @@ public abstract class GenericCodeService<
    */
   @Transactional
   public void deleteByCode(C code) {
-    E entity = findEntityByCode(code);
-    repository.delete(entity);
+    if (deleteAllByCode(List.of(code)) == 0) {
+      throw new NotFoundException(ExceptionConstants.NOT_FOUND, code);
+    }
+  }
+
+  /**
+   * Deletes the entities with the given codes in a single statement, without loading them. The
+   * rows of the many-to-many join tables that reference them are removed in the same transaction.
+   *
+   * @param codes the codes of the entities to delete.
+   * @return the number of deleted entities.
+   */
+  @Transactional
+  public long deleteAllByCode(Collection<C> codes) {
+    if (codes.isEmpty()) {
+      return 0;
+    }
+    recordTombstones((root, query, cb) -> root.get(EntityConstants.CODE).in(codes));
+    deleteJoinRows(() -> findIdsByCode(codes));
+    return afterBulkDelete(repository.bulkDeleteByCodes(codes));
+  }
+
+  /**
+   * Inserts or updates the entities of the given DTOs by their code with set-based statements,
+   * {@code INSERT ... ON CONFLICT (code) DO UPDATE}, rendered as {@code MERGE} on databases without
+   * it. Rows that already hold the received values are not updated. Only the code and the columns a
+   * client can write through the DTO (see {@link #getWritableAttributes()}) are written; other
+   * columns keep their value, or their database default on insert, and associations are left
+   * unchanged.
+   *
+   * <p>The statements bypass the {@code createEntity} and {@code updateEntity} hooks, so services
+   * that customise them do not support upserts (see {@link #isUpsertSupported()}).
+   *
+   * @param dtos the DTOs to insert or update. When a code is repeated, the last DTO wins.
+   * @return the number of rows inserted or changed.
+   * @throws BadRequestException if a DTO has no code.
+   * @throws UnsupportedOperationException if the service does not support upserts.
+   */
+  @Transactional
+  public long upsertByCode(Collection<D> dtos) {
+    if (!isUpsertSupported()) {
+      throw new UnsupportedOperationException(
+          getClass().getSimpleName() + " no admite upserts: personaliza la creación o edición.");
+    }
+    Map<C, E> entities = new LinkedHashMap<>();
+    for (D dto : dtos) {
+      E entity = mapper.toEntity(dto);
+      if (entity.getCode() == null) {
+        throw new BadRequestException("{0} es obligatorio.", EntityConstants.CODE);
+      }
+      entities.put(entity.getCode(), entity);
+    }
+    List<E> rows = new ArrayList<>(entities.values());
+    List<Field> columns = getUpsertColumns();
+    int chunkSize = getBatchChunkSize();
+    long count = 0;
+    for (int from = 0; from < rows.size(); from += chunkSize) {
+      count += upsert(rows.subList(from, Math.min(rows.size(), from + chunkSize)), columns);
+    }
+    if (count > 0) {
+      SearchResultCache.invalidate(getEntityClass());
+    }
+    return count;
+  }
+
+  /**
+   * Indicates whether {@link #upsertByCode(Collection)} can be used. By default it can only if the
+   * service does not override {@code createEntity} or {@code updateEntity}, since the upsert would
+   * skip the logic they add (encoding a password, for example). A service whose hooks only repeat
+   * what the upsert already writes may override this method to allow it.
+   *
+   * @return {@code true} if upserts are supported.
+   */
+  protected boolean isUpsertSupported() {
+    return !overridesHook(UPSERT_HOOKS);
+  }
+
+  /**
+   * Batch updates and deletes identify the entities by their code.
+   *
+   * @return the code property.
+   */
+  @Override
+  public String getBatchKeyProperty() {
+    return EntityConstants.CODE;
+  }
+
+  @Override
+  public Class<?> getBatchKeyType() {
+    return ResolvableType.forClass(getClass()).as(GenericCodeService.class).resolveGeneric(2);
+  }
+
+  @Override
+  protected List<E> findAllByBatchKeys(Collection<?> keys) {
+    return repository.findAll((root, query, cb) -> root.get(EntityConstants.CODE).in(keys));
+  }
+
+  @Override
+  protected Object getBatchKey(E entity) {
+    return entity.getCode();
+  }
+
+  /** Runs the upsert of a chunk of rows as a single statement. */
+  private int upsert(List<E> rows, List<Field> columns) {
+    StringJoiner names = new StringJoiner(", ", "(", ")");
+    StringJoiner changes = new StringJoiner(", ");
+    StringJoiner changed = new StringJoiner(" or ", "(", ")");
+    for (Field column : columns) {
+      String name = column.getName();
+      names.add(name);
+      if (!EntityConstants.CODE.equals(name)) {
+        changes.add(name + " = excluded." + name);
+        changed.add("e." + name + " is distinct from excluded." + name);
+      }
+    }
+    names.add(EntityConstants.CREATED_AT).add(EntityConstants.UPDATED_AT);
+    if (changes.length() > 0) {
+      changes.add(EntityConstants.VERSION + " = e." + EntityConstants.VERSION + " + 1");
+      changes.add(EntityConstants.UPDATED_AT + " = excluded." + EntityConstants.UPDATED_AT);
+    }
+    StringJoiner values = new StringJoiner(", ");
+    List<Object> parameters = new ArrayList<>(rows.size() * columns.size() + 1);
+    parameters.add(TimeUtil.localDateTimeNow());
+    for (E row : rows) {
+      StringJoiner rowValues = new StringJoiner(", ", "(", ")");
+      for (Field column : columns) {
+        parameters.add(ReflectionUtils.getField(column, row));
+        rowValues.add("?" + parameters.size());
+      }
+      values.add(rowValues.add("?1").add("?1").toString());
+    }
+    StringBuilder statement =
+        new StringBuilder("insert into ")
+            .append(entityManager.getMetamodel().entity(getEntityClass()).getName())
+            .append(" e ")
+            .append(names)
+            .append(" values ")
+            .append(values)
+            .append(" on conflict (" + EntityConstants.CODE + ")");
+    if (changes.length() == 0) {
+      statement.append(" do nothing");
+    } else {
+      statement.append(" do update set ").append(changes).append(" where ").append(changed);
+    }
+    Query query = entityManager.createQuery(statement.toString());
+    for (int i = 0; i < parameters.size(); i++) {
+      query.setParameter(i + 1, parameters.get(i));
+    }
+    return query.executeUpdate();
+  }
+
+  /**
+   * Returns the fields of the entity written by an upsert: the code and the attributes a client can
+   * write through the DTO. The audit dates are written by the upsert itself.
+   */
+  private List<Field> getUpsertColumns() {
+    EntityType<?> entityType = entityManager.getMetamodel().entity(getEntityClass());
+    Set<String> writable = getWritableAttributes();
+    List<Field> columns = new ArrayList<>();
+    for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+      String name = attribute.getName();
+      if (attribute.getPersistentAttributeType() == BASIC
+          && (EntityConstants.CODE.equals(name) || writable.contains(name))
+          && !EntityConstants.CREATED_AT.equals(name)
+          && !EntityConstants.UPDATED_AT.equals(name)) {
+        Field field = (Field) attribute.getJavaMember();
+        ReflectionUtils.makeAccessible(field);
+        columns.add(field);
+      }
+    }
+    columns.sort(Comparator.comparing(Field::getName));
+    return columns;
+  }
+
+  /** Returns the identifiers of the entities with the given codes, without loading them. */
+  private List<Object> findIdsByCode(Collection<C> codes) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Object> query = criteriaBuilder.createQuery(Object.class);
+    Root<?> root = query.from(getEntityClass());
+    query.select(root.get(EntityConstants.ID)).where(root.get(EntityConstants.CODE).in(codes));
+    return entityManager.createQuery(query).getResultList();
   }
 }
@@ -1,30 +1,97 @@
 package org.barrikeit.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Table;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.extern.log4j.Log4j2;
 import org.barrikeit.model.domain.GenericEntity;
 import org.barrikeit.model.repository.GenericRepository;
+import org.barrikeit.rest.dto.CursorPage;
+import org.barrikeit.rest.dto.FacetCount;
 import org.barrikeit.rest.dto.GenericDto;
 import org.barrikeit.rest.filter.GenericFilter;
 import org.barrikeit.rest.filter.GenericFilterBuilder;
 import org.barrikeit.service.mapper.GenericMapper;
 import org.barrikeit.util.ReflectionUtil;
+import org.barrikeit.util.TimeUtil;
+import org.barrikeit.util.constants.EntityConstants;
+import org.barrikeit.util.constants.UtilConstants;
 import org.barrikeit.util.exceptions.BadRequestException;
+import org.barrikeit.util.filter.CountExecutor;
+import org.barrikeit.util.filter.CountStrategy;
+import org.barrikeit.util.filter.EntityProjection;
 import org.barrikeit.util.filter.FilterSpecification;
+import org.barrikeit.util.filter.JoinRegistry;
+import org.barrikeit.util.filter.KeysetCursor;
 import org.barrikeit.util.filter.SearchCriteria;
+import org.barrikeit.util.filter.SearchNode;
+import org.barrikeit.util.filter.SearchPlan;
+import org.barrikeit.util.filter.SearchResultCache;
+import org.barrikeit.util.filter.SearchValueConverter;
+import org.barrikeit.util.filter.SparseFieldset;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -47,9 +114,39 @@ public abstract class GenericFilterService<
         F extends GenericFilter>
     extends GenericService<E, I, D> {
 
+  /** Métodos del servicio que {@link #patchBySearch(String, Map)} no puede ejecutar. */
+  private static final Set<String> PATCH_BY_SEARCH_HOOKS = Set.of("updateEntity");
+
   private final GenericRepository<E, I> repository;
   private final GenericMapper<E, D> mapper;
 
+  @PersistenceContext private EntityManager entityManager;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  /**
+   * Páginas de DTOs memorizadas por criterios efectivos de la búsqueda, solo si el servicio activa
+   * la caché de resultados.
+   */
+  private volatile Cache<List<Object>, Slice<D>> resultCache;
+
+  /** Recuentos exactos memorizados por criterios efectivos de la búsqueda. */
+  private final Cache<List<Object>, Long> countCache =
+      Caffeine.newBuilder()
+          .maximumSize(UtilConstants.COUNT_CACHE_SIZE)
+          .expireAfterWrite(Duration.ofSeconds(UtilConstants.COUNT_CACHE_TTL_SECONDS))
+          .build();
+
+  /**
+   * Especificaciones compiladas por instancia de criterio. Los criterios de los planes en caché se
+   * comparten entre peticiones, por lo que cada uno se compila una sola vez.
+   */
+  private final Cache<SearchCriteria, FilterSpecification<E>> specificationCache =
+      Caffeine.newBuilder().weakKeys().maximumSize(UtilConstants.SEARCH_PLAN_CACHE_SIZE).build();
+
   protected GenericFilterService(GenericRepository<E, I> repository, GenericMapper<E, D> mapper) {
     super(repository, mapper);
     this.repository = repository;
@@ -58,6 +155,26 @@ public abstract class GenericFilterService<
 
   public abstract GenericFilterBuilder<D, F> instanceFilterBuilder(Pageable page, String search);
 
+  /**
+   * Estrategia de recuento que se usa cuando la petición no indica ninguna. Las subclases pueden
+   * sobrescribirla para cambiar el comportamiento por defecto de su endpoint.
+   *
+   * @return La estrategia de recuento por defecto.
+   */
+  protected CountStrategy getDefaultCountStrategy() {
+    return CountStrategy.EXACT;
+  }
+
+  /**
+   * Tiempo máximo que se espera al recuento de {@link CountStrategy#CONCURRENT} una vez obtenida
+   * la página de resultados.
+   *
+   * @return El tiempo de espera.
+   */
+  protected Duration getConcurrentCountTimeout() {
+    return Duration.ofMillis(UtilConstants.CONCURRENT_COUNT_TIMEOUT_MILLIS);
+  }
+
   /**
    * Realiza una búsqueda paginada o no paginada en base a los criterios de búsqueda proporcionados.
    *
@@ -87,6 +204,766 @@ public abstract class GenericFilterService<
         : repository.findAll(createSpecificationField(filterBuilder), filterBuilder.getPage());
   }
 
+  /**
+   * Realiza una búsqueda paginada o no paginada obteniendo el total con la estrategia indicada.
+   *
+   * <p>Si el servicio tiene activada la proyección ({@link #isProjectionEnabled()}), solo se
+   * consultan las columnas de los atributos del DTO y las entidades no pasan por el contexto de
+   * persistencia.
+   *
+   * @param page El objeto Pageable que contiene la información de paginación.
+   * @param unpaged Un booleano que indica si la búsqueda debe ser paginada o no.
+   * @param search Una cadena de texto que contiene los criterios de búsqueda.
+   * @param countStrategy La estrategia de recuento, o {@code null} para usar la del servicio.
+   * @return Un Slice de DTOs, que será una página con total salvo con {@link CountStrategy#NONE}.
+   */
+  public Slice<D> search(
+      @NotNull Pageable page, boolean unpaged, String search, CountStrategy countStrategy) {
+    return search(page, unpaged, search, countStrategy, Set.of());
+  }
+
+  /**
+   * Realiza una búsqueda paginada o no paginada cargando solo los campos del DTO indicados. Con
+   * campos, la búsqueda siempre usa la proyección y solo consulta las columnas y asociaciones
+   * necesarias para ellos.
+   *
+   * @param page El objeto Pageable que contiene la información de paginación.
+   * @param unpaged Un booleano que indica si la búsqueda debe ser paginada o no.
+   * @param search Una cadena de texto que contiene los criterios de búsqueda.
+   * @param countStrategy La estrategia de recuento, o {@code null} para usar la del servicio.
+   * @param fields Campos del DTO que se cargan, o un conjunto vacío para el DTO completo.
+   * @return Un Slice de DTOs, que será una página con total salvo con {@link CountStrategy#NONE}.
+   */
+  @Transactional(readOnly = true)
+  public Slice<D> search(
+      @NotNull Pageable page,
+      boolean unpaged,
+      String search,
+      CountStrategy countStrategy,
+      Set<String> fields) {
+    Set<String> normalized = SparseFieldset.normalize(fields);
+    GenericFilterBuilder<D, F> filterBuilder = instanceFilterBuilder(page, search);
+    CountStrategy strategy = countStrategy != null ? countStrategy : getDefaultCountStrategy();
+    Cache<List<Object>, Slice<D>> cache = getResultCache();
+    if (cache == null) {
+      return searchDto(filterBuilder, unpaged, strategy, normalized);
+    }
+    List<Object> key =
+        Arrays.asList(
+            getCriteriaKey(filterBuilder),
+            filterBuilder.getPage().getSort(),
+            filterBuilder.getPage().getPageNumber(),
+            filterBuilder.getPage().getPageSize(),
+            unpaged,
+            strategy,
+            normalized);
+    return SearchResultCache.get(
+        getEntityClass(),
+        cache,
+        key,
+        () -> searchDto(filterBuilder, unpaged, strategy, normalized));
+  }
+
+  /**
+   * Clave de los criterios efectivos de una búsqueda, independiente de la ordenación y la página:
+   * la cadena de búsqueda y los criterios que quedan tras aplicar el filtro personalizado, que
+   * pueden depender del usuario o de la fecha de cada petición.
+   */
+  private List<Object> getCriteriaKey(GenericFilterBuilder<D, F> filterBuilder) {
+    SearchPlan.Key planKey = filterBuilder.getPlan().getKey();
+    return List.of(
+        planKey.getType(),
+        Objects.toString(planKey.getSearch(), ""),
+        List.copyOf(filterBuilder.getFilters()),
+        List.copyOf(filterBuilder.getParams()));
+  }
+
+  private Slice<D> searchDto(
+      GenericFilterBuilder<D, F> filterBuilder,
+      boolean unpaged,
+      CountStrategy strategy,
+      Set<String> fields) {
+    EntityProjection<E> projection =
+        !fields.isEmpty() || isProjectionEnabled() ? getProjection(fields) : null;
+    Slice<E> sliced = searchEntity(filterBuilder, unpaged, strategy, projection);
+    return sliced.map(mapper::toDto);
+  }
+
+  /**
+   * Indica si los resultados de {@link #search(Pageable, boolean, String, CountStrategy, Set)} se
+   * guardan en caché. La caché se vacía automáticamente al escribir cualquier entidad del tipo del
+   * servicio, por lo que solo conviene activarla en entidades que se leen mucho más de lo que se
+   * escriben.
+   *
+   * @return {@code true} para activar la caché de resultados.
+   */
+  protected boolean isResultCacheEnabled() {
+    return false;
+  }
+
+  /**
+   * Peso máximo de la caché de resultados, medido en número de DTOs de todas las páginas
+   * guardadas.
+   *
+   * @return El peso máximo.
+   */
+  protected long getResultCacheMaxWeight() {
+    return UtilConstants.RESULT_CACHE_MAX_WEIGHT;
+  }
+
+  /**
+   * Tiempo que se conserva cada página en la caché de resultados desde que se guarda.
+   *
+   * @return La duración de cada entrada.
+   */
+  protected Duration getResultCacheTtl() {
+    return Duration.ofSeconds(UtilConstants.RESULT_CACHE_TTL_SECONDS);
+  }
+
+  /**
+   * Obtiene la caché de resultados, creándola y registrando sus métricas la primera vez.
+   *
+   * @return La caché, o {@code null} si el servicio no la tiene activada.
+   */
+  private Cache<List<Object>, Slice<D>> getResultCache() {
+    if (!isResultCacheEnabled()) {
+      return null;
+    }
+    Cache<List<Object>, Slice<D>> cache = resultCache;
+    if (cache == null) {
+      synchronized (this) {
+        cache = resultCache;
+        if (cache == null) {
+          cache =
+              Caffeine.newBuilder()
+                  .maximumWeight(getResultCacheMaxWeight())
+                  .<List<Object>, Slice<D>>weigher(
+                      (key, value) -> Math.max(1, value.getNumberOfElements()))
+                  .expireAfterWrite(getResultCacheTtl())
+                  .recordStats()
+                  .build();
+          SearchResultCache.register(getEntityClass(), cache);
+          if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(
+                meterRegistry, cache, "search." + getEntityClass().getSimpleName());
+          }
+          resultCache = cache;
+        }
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Realiza una búsqueda paginada o no paginada obteniendo el total con la estrategia indicada.
+   *
+   * <p>Salvo con {@link CountStrategy#EXACT}, la página se obtiene pidiendo un elemento más del
+   * tamaño de página para saber si existe página siguiente. Cuando no la hay, el total se deduce de
+   * la propia página sin consultar la base de datos.
+   *
+   * @param page El objeto Pageable que contiene la información de paginación.
+   * @param unpaged Un booleano que indica si la búsqueda debe ser paginada o no.
+   * @param search Una cadena de texto que contiene los criterios de búsqueda.
+   * @param countStrategy La estrategia de recuento, o {@code null} para usar la del servicio.
+   * @return Un Slice de Entidades, que será una página con total salvo con {@link
+   *     CountStrategy#NONE}.
+   */
+  public Slice<E> searchEntity(
+      @NotNull Pageable page, boolean unpaged, String search, CountStrategy countStrategy) {
+    return searchEntity(instanceFilterBuilder(page, search), unpaged, countStrategy, null);
+  }
+
+  /**
+   * Realiza la búsqueda cargando entidades gestionadas o, si se indica una proyección, entidades
+   * construidas solo con las columnas de la proyección.
+   */
+  private Slice<E> searchEntity(
+      GenericFilterBuilder<D, F> filterBuilder,
+      boolean unpaged,
+      CountStrategy countStrategy,
+      EntityProjection<E> projection) {
+    if (unpaged && projection == null) {
+      return searchEntityUnpaged(filterBuilder);
+    }
+    Specification<E> specification = createSpecificationField(filterBuilder);
+    Pageable pageable = filterBuilder.getPage();
+    if (unpaged) {
+      List<E> result = projection.getResultList(specification, pageable.getSort(), 0, -1);
+      return new PageImpl<>(result, pageable, result.size());
+    }
+    CountStrategy strategy = countStrategy != null ? countStrategy : getDefaultCountStrategy();
+    if (strategy == CountStrategy.EXACT) {
+      return projection == null
+          ? repository.findAll(specification, pageable)
+          : PageableExecutionUtils.getPage(
+              projection.getResultList(
+                  specification, pageable.getSort(), pageable.getOffset(), pageable.getPageSize()),
+              pageable,
+              () -> repository.count(Specification.where(specification)));
+    }
+
+    CompletableFuture<Long> concurrentCount =
+        strategy == CountStrategy.CONCURRENT
+            ? countConcurrently(filterBuilder, specification)
+            : null;
+    Slice<E> slice =
+        projection == null
+            ? searchEntitySlice(specification, pageable)
+            : searchProjectionSlice(projection, specification, pageable);
+    if (strategy == CountStrategy.NONE) {
+      return slice;
+    }
+    long total;
+    if (!slice.hasNext()) {
+      if (concurrentCount != null) {
+        concurrentCount.cancel(true);
+      }
+      total = pageable.getOffset() + slice.getNumberOfElements();
+    } else if (strategy == CountStrategy.ESTIMATED) {
+      total = countEstimated(filterBuilder, specification);
+    } else if (strategy == CountStrategy.CONCURRENT) {
+      Long joined = joinCount(filterBuilder, specification, concurrentCount);
+      if (joined == null) {
+        return slice;
+      }
+      total = joined;
+    } else {
+      total = countCached(filterBuilder, specification);
+    }
+    return new PageImpl<>(slice.getContent(), pageable, total);
+  }
+
+  /**
+   * Indica si las búsquedas de DTOs deben cargar solo las columnas de los atributos del DTO en
+   * lugar de entidades gestionadas. Solo debe activarse si los atributos del DTO se corresponden
+   * por nombre con los de la entidad, ya que el resto de atributos de la entidad no se cargan.
+   *
+   * @return {@code true} para usar la proyección en {@link #search(Pageable, boolean, String,
+   *     CountStrategy)}.
+   */
+  protected boolean isProjectionEnabled() {
+    return false;
+  }
+
+  /**
+   * Obtiene una porción de resultados proyectados, pidiendo un elemento más del tamaño de página
+   * para saber si existe página siguiente.
+   */
+  private Slice<E> searchProjectionSlice(
+      EntityProjection<E> projection, Specification<E> specification, Pageable page) {
+    List<E> result =
+        projection.getResultList(
+            specification, page.getSort(), page.getOffset(), page.getPageSize() + 1);
+    boolean hasNext = result.size() > page.getPageSize();
+    return new SliceImpl<>(
+        hasNext ? result.subList(0, page.getPageSize()) : result, page, hasNext);
+  }
+
+  /**
+   * Obtiene una porción de resultados sin consulta de recuento, pidiendo un elemento más del tamaño
+   * de página para saber si existe página siguiente.
+   */
+  private Slice<E> searchEntitySlice(Specification<E> specification, Pageable page) {
+    ScrollPosition position =
+        page.getOffset() == 0
+            ? ScrollPosition.offset()
+            : ScrollPosition.offset(page.getOffset() - 1);
+    Window<E> window =
+        repository.findBy(
+            Specification.where(specification),
+            query -> query.sortBy(page.getSort()).limit(page.getPageSize()).scroll(position));
+    return new SliceImpl<>(window.getContent(), page, window.hasNext());
+  }
+
+  /** Devuelve el recuento exacto de la búsqueda, memorizado durante un tiempo limitado. */
+  private long countCached(
+      GenericFilterBuilder<D, F> filterBuilder, Specification<E> specification) {
+    return countCache.get(
+        getCriteriaKey(filterBuilder), key -> repository.count(Specification.where(specification)));
+  }
+
+  /**
+   * Lanza el recuento exacto en un hilo virtual, con su propia transacción de solo lectura y por
+   * tanto su propia conexión. El resultado se memoriza para los recuentos cacheados.
+   *
+   * @return El recuento futuro, o {@code null} si se ha alcanzado el límite de recuentos
+   *     simultáneos.
+   */
+  private CompletableFuture<Long> countConcurrently(
+      GenericFilterBuilder<D, F> filterBuilder, Specification<E> specification) {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    transaction.setReadOnly(true);
+    // El tiempo de la transacción se aplica como timeout de la consulta de recuento
+    transaction.setTimeout(
+        (int) Math.max(1, getConcurrentCountTimeout().plusMillis(999).toSeconds()));
+    List<Object> key = getCriteriaKey(filterBuilder);
+    return CountExecutor.submit(
+        () -> {
+          Long total =
+              transaction.execute(status -> repository.count(Specification.where(specification)));
+          countCache.put(key, total);
+          return total;
+        });
+  }
+
+  /**
+   * Espera al recuento concurrente. Si no se pudo lanzar se cuenta de forma secuencial, y si no
+   * termina a tiempo se cancela, para liberar su conexión, y se usa el recuento memorizado o la
+   * estimación del planificador.
+   *
+   * @return El total, o {@code null} si no se conoce.
+   */
+  private Long joinCount(
+      GenericFilterBuilder<D, F> filterBuilder,
+      Specification<E> specification,
+      CompletableFuture<Long> concurrentCount) {
+    if (concurrentCount == null) {
+      return countCached(filterBuilder, specification);
+    }
+    try {
+      return concurrentCount.get(getConcurrentCountTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      log.warn("Recuento de {} sin completar a tiempo", getEntityClass().getSimpleName());
+      concurrentCount.cancel(true);
+    } catch (InterruptedException e) {
+      concurrentCount.cancel(true);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+    Long cached = countCache.getIfPresent(getCriteriaKey(filterBuilder));
+    return cached != null ? cached : estimateRows(specification);
+  }
+
+  /**
+   * Devuelve una estimación del total. Para búsquedas sin filtros en Postgres se usa la estimación
+   * del planificador ({@code pg_class.reltuples}); en cualquier otro caso se usa el recuento
+   * cacheado.
+   */
+  private long countEstimated(
+      GenericFilterBuilder<D, F> filterBuilder, Specification<E> specification) {
+    Long estimate = estimateRows(specification);
+    return estimate != null ? estimate : countCached(filterBuilder, specification);
+  }
+
+  /**
+   * Estimación del planificador de Postgres ({@code pg_class.reltuples}), solo disponible para
+   * búsquedas sin filtros.
+   *
+   * @return La estimación, o {@code null} si no está disponible.
+   */
+  private Long estimateRows(Specification<E> specification) {
+    if (specification == null && isPostgres()) {
+      List<?> estimate =
+          entityManager
+              .createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = to_regclass(?1)")
+              .setParameter(1, getQualifiedTableName())
+              .getResultList();
+      if (!estimate.isEmpty()
+          && estimate.get(0) instanceof Number reltuples
+          && reltuples.doubleValue() >= 0) {
+        return Math.round(reltuples.doubleValue());
+      }
+    }
+    return null;
+  }
+
+  private boolean isPostgres() {
+    return entityManager
+            .getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+        instanceof PostgreSQLDialect;
+  }
+
+  private String getQualifiedTableName() {
+    Class<?> entityClass = getEntityClass();
+    Table table = entityClass.getAnnotation(Table.class);
+    String tableName = table != null ? table.name() : entityClass.getSimpleName();
+    Object schema =
+        entityManager.getEntityManagerFactory().getProperties().get("hibernate.default_schema");
+    return ObjectUtils.isEmpty(schema) ? tableName : schema + "." + tableName;
+  }
+
+  /**
+   * Número de filas que se piden al driver JDBC en cada viaje al recorrer una búsqueda en
+   * streaming.
+   *
+   * @return El tamaño de fetch.
+   */
+  protected int getStreamFetchSize() {
+    return UtilConstants.STREAM_FETCH_SIZE;
+  }
+
+  /**
+   * Número de filas tras las que se vacía el contexto de persistencia al recorrer una búsqueda en
+   * streaming.
+   *
+   * @return El intervalo de limpieza.
+   */
+  protected int getStreamClearInterval() {
+    return UtilConstants.STREAM_CLEAR_INTERVAL;
+  }
+
+  /**
+   * Calcula cuántas entidades cumplen la búsqueda para cada valor de las facetas indicadas. Cada
+   * faceta se resuelve con una consulta {@code GROUP BY} sobre la misma especificación que la
+   * búsqueda, de modo que solo se leen los agregados. En las facetas que atraviesan una colección
+   * ({@code roles.code}) se cuentan entidades distintas.
+   *
+   * @param search Una cadena de texto que contiene los criterios de búsqueda.
+   * @param facets Rutas de los atributos de las facetas, que deben ser propiedades del filtro.
+   * @return Los valores de cada faceta con su número de entidades, de mayor a menor, en el orden
+   *     en que se han pedido las facetas.
+   */
+  @Transactional(readOnly = true)
+  public Map<String, List<FacetCount>> facets(String search, Collection<String> facets) {
+    Set<String> normalized = new LinkedHashSet<>();
+    if (facets != null) {
+      facets.stream()
+          .filter(facet -> facet != null && !facet.isBlank())
+          .map(String::trim)
+          .forEach(normalized::add);
+    }
+    if (normalized.isEmpty() || normalized.size() > UtilConstants.FACET_MAX_FIELDS) {
+      throw new BadRequestException(
+          "Debe indicarse entre 1 y {0} facetas.", String.valueOf(UtilConstants.FACET_MAX_FIELDS));
+    }
+    GenericFilterBuilder<D, F> filterBuilder = instanceFilterBuilder(PageRequest.of(0, 1), search);
+    normalized.forEach(filterBuilder::validateFacet);
+    Specification<E> specification = createSpecificationField(filterBuilder);
+
+    Map<String, List<FacetCount>> result = new LinkedHashMap<>();
+    for (String facet : normalized) {
+      result.put(facet, countFacet(specification, facet));
+    }
+    return result;
+  }
+
+  private List<FacetCount> countFacet(Specification<E> specification, String facet) {
+    @SuppressWarnings("unchecked")
+    Class<E> entityClass = (Class<E>) getEntityClass();
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+    Root<E> root = query.from(entityClass);
+    if (specification != null) {
+      Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+      if (predicate != null) {
+        query.where(predicate);
+      }
+    }
+
+    int separator = facet.lastIndexOf(JoinRegistry.PATH_SEPARATOR);
+    String joinPath = separator < 0 ? null : facet.substring(0, separator);
+    From<?, ?> from = joinPath == null ? root : JoinRegistry.join(root, joinPath, JoinType.LEFT);
+    Path<?> path;
+    try {
+      path = from.get(facet.substring(separator + 1));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("{0} no es una faceta válida para la búsqueda.", facet);
+    }
+    if (!(path.getModel() instanceof SingularAttribute<?, ?> attribute)
+        || attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+      throw new BadRequestException("{0} no es una faceta válida para la búsqueda.", facet);
+    }
+
+    Expression<Long> count =
+        joinPath != null && JoinRegistry.isToMany(root, joinPath)
+            ? criteriaBuilder.countDistinct(root)
+            : criteriaBuilder.count(root);
+    query
+        .multiselect(path, count)
+        .groupBy(path)
+        .orderBy(criteriaBuilder.desc(count), criteriaBuilder.asc(path));
+    return entityManager
+        .createQuery(query)
+        .setMaxResults(UtilConstants.FACET_MAX_VALUES)
+        .setHint(HibernateHints.HINT_READ_ONLY, true)
+        .getResultList()
+        .stream()
+        .map(tuple -> new FacetCount(tuple.get(0), tuple.get(1, Long.class)))
+        .toList();
+  }
+
+  /**
+   * Aplica un JSON Merge Patch (RFC 7396) a todas las entidades que cumplen la búsqueda con una
+   * única sentencia {@code UPDATE}, sin cargarlas. Cada campo del parche asigna su valor al
+   * atributo del mismo nombre y un {@code null} lo vacía.
+   *
+   * <p>La búsqueda se aplica a una subconsulta de identificadores ({@code id in (select ...)}),
+   * ya que las sentencias de actualización no admiten los joins de las rutas con puntos.
+   *
+   * <p>La sentencia no pasa por {@code updateEntity}, por lo que los servicios que lo personalizan
+   * no admiten esta operación (ver {@link #isPatchBySearchSupported()}).
+   *
+   * @param search Una cadena de texto que contiene los criterios de búsqueda, obligatoria.
+   * @param patch Campos que se modifican con su nuevo valor.
+   * @return El número de entidades modificadas.
+   * @throws BadRequestException si la búsqueda está vacía, el parche no tiene campos o alguno no
+   *     es un atributo modificable o no tiene un valor válido.
+   * @throws UnsupportedOperationException si el servicio no admite la operación.
+   */
+  @Transactional
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public long patchBySearch(String search, Map<String, Object> patch) {
+    if (!isPatchBySearchSupported()) {
+      throw new UnsupportedOperationException(
+          getClass().getSimpleName()
+              + " no admite modificaciones por búsqueda: personaliza la edición.");
+    }
+    if (ObjectUtils.isEmpty(patch)) {
+      throw new BadRequestException("El parche debe contener al menos un campo.");
+    }
+    Specification<E> specification = createBulkSpecification(search);
+    Class<E> entityClass = (Class<E>) getEntityClass();
+    EntityType<E> entityType = entityManager.getMetamodel().entity(entityClass);
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<E> update = criteriaBuilder.createCriteriaUpdate(entityClass);
+    Root<E> root = update.from(entityClass);
+    patch.forEach(
+        (name, value) -> {
+          SingularAttribute<? super E, ?> attribute = getPatchAttribute(entityType, name);
+          if (value instanceof Map || value instanceof Collection) {
+            throw new BadRequestException(
+                "{0} no es un valor válido para el campo {1}.", value, name);
+          }
+          Object converted =
+              value == null
+                  ? null
+                  : SearchValueConverter.convert(name, value, attribute.getJavaType());
+          if (converted == null && !attribute.isOptional()) {
+            throw new BadRequestException("{0} no admite valores nulos.", name);
+          }
+          update.set((Path) root.get(attribute), converted);
+        });
+    Path<Long> version = root.get(EntityConstants.VERSION);
+    update.set(version, criteriaBuilder.sum(version, 1L));
+    update.set(root.get(EntityConstants.UPDATED_AT), TimeUtil.localDateTimeNow());
+    update.where(matching(update, root, specification));
+    int count = entityManager.createQuery(update).executeUpdate();
+    if (count > 0) {
+      SearchResultCache.invalidate(entityClass);
+    }
+    return count;
+  }
+
+  /**
+   * Elimina todas las entidades que cumplen la búsqueda con una única sentencia {@code DELETE},
+   * sin cargarlas. Las filas de las tablas de relación que las referencian se eliminan en la
+   * misma transacción.
+   *
+   * @param search Una cadena de texto que contiene los criterios de búsqueda, obligatoria.
+   * @return El número de entidades eliminadas.
+   * @throws BadRequestException si la búsqueda está vacía.
+   */
+  @Transactional
+  public long deleteBySearch(String search) {
+    Specification<E> specification = createBulkSpecification(search);
+    @SuppressWarnings("unchecked")
+    Class<E> entityClass = (Class<E>) getEntityClass();
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    recordTombstones((root, query, cb) -> matching(query, root, specification));
+    deleteJoinRows(
+        () -> {
+          CriteriaQuery<Object> query = criteriaBuilder.createQuery(Object.class);
+          Root<E> root = query.from(entityClass);
+          query.select(root.get(EntityConstants.ID)).where(matching(query, root, specification));
+          return entityManager.createQuery(query).getResultList();
+        });
+    CriteriaDelete<E> delete = criteriaBuilder.createCriteriaDelete(entityClass);
+    Root<E> root = delete.from(entityClass);
+    delete.where(matching(delete, root, specification));
+    return afterBulkDelete(entityManager.createQuery(delete).executeUpdate());
+  }
+
+  /**
+   * Indica si puede usarse {@link #patchBySearch(String, Map)}. Por defecto solo si el servicio no
+   * sobrescribe {@code updateEntity}, ya que la sentencia se saltaría sus validaciones, igual que
+   * {@code upsertByCode} en los servicios por código. Un servicio cuyo {@code updateEntity} no
+   * añade nada que afecte a los atributos modificables puede sobrescribir este método.
+   *
+   * @return {@code true} si se admiten las modificaciones por búsqueda.
+   */
+  protected boolean isPatchBySearchSupported() {
+    return !overridesHook(PATCH_BY_SEARCH_HOOKS);
+  }
+
+  /**
+   * Indica si un atributo puede modificarse con {@link #patchBySearch(String, Map)}: por defecto,
+   * los atributos básicos que el mapper copia del DTO al actualizar la entidad (ver {@link
+   * #getWritableAttributes()}), salvo el código. Los atributos que el mapeo ignora, como la
+   * contraseña o los gestionados por el servidor, no pueden modificarse. Las subclases pueden
+   * ampliar la lista sobrescribiendo {@link #getWritableAttributes()} o este método.
+   *
+   * @param attribute Atributo de la entidad.
+   * @return {@code true} si el atributo puede modificarse.
+   */
+  protected boolean isPatchable(SingularAttribute<? super E, ?> attribute) {
+    return attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC
+        && !attribute.isId()
+        && !attribute.isVersion()
+        && !EntityConstants.CODE.equals(attribute.getName())
+        && getWritableAttributes().contains(attribute.getName());
+  }
+
+  private SingularAttribute<? super E, ?> getPatchAttribute(EntityType<E> entityType, String name) {
+    try {
+      SingularAttribute<? super E, ?> attribute = entityType.getSingularAttribute(name);
+      if (isPatchable(attribute)) {
+        return attribute;
+      }
+    } catch (IllegalArgumentException e) {
+      // No es un atributo de la entidad
+    }
+    throw new BadRequestException("{0} no es un campo modificable.", name);
+  }
+
+  /** Especificación de una operación masiva, que exige una búsqueda con criterios. */
+  private Specification<E> createBulkSpecification(String search) {
+    Specification<E> specification =
+        ObjectUtils.isEmpty(search)
+            ? null
+            : createSpecificationField(instanceFilterBuilder(PageRequest.of(0, 1), search));
+    if (specification == null) {
+      throw new BadRequestException("Las operaciones masivas requieren una búsqueda.");
+    }
+    return specification;
+  }
+
+  /**
+   * Predicado {@code id in (select id ... where búsqueda)} de una sentencia. La búsqueda se aplica
+   * sin consulta principal, por lo que las rutas a colecciones se resuelven con un join en la
+   * subconsulta.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Predicate matching(
+      CommonAbstractCriteria statement, Root<E> root, Specification<E> specification) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    Subquery ids = statement.subquery(root.getModel().getIdType().getJavaType());
+    Root<E> matching = ids.from(root.getModel());
+    ids.select(matching.get(EntityConstants.ID))
+        .where(specification.toPredicate(matching, null, criteriaBuilder));
+    return root.get(EntityConstants.ID).in(ids);
+  }
+
+  /**
+   * Recorre todos los resultados de una búsqueda sin cargarlos en memoria. Las filas se leen con un
+   * cursor del driver en bloques de {@link #getStreamFetchSize()}, cada una se transforma en DTO y
+   * se entrega inmediatamente a la acción, y el contexto de persistencia se vacía cada {@link
+   * #getStreamClearInterval()} filas para que no crezca con el resultado.
+   *
+   * @param page El objeto Pageable del que se usa únicamente la ordenación.
+   * @param search Una cadena de texto que contiene los criterios de búsqueda.
+   * @param action Acción que recibe cada DTO en el orden de la búsqueda.
+   * @return El número de elementos recorridos.
+   */
+  @Transactional(readOnly = true)
+  public long searchStream(@NotNull Pageable page, String search, Consumer<D> action) {
+    GenericFilterBuilder<D, F> filterBuilder = instanceFilterBuilder(page, search);
+    Specification<E> specification = createSpecificationField(filterBuilder);
+
+    @SuppressWarnings("unchecked")
+    Class<E> entityClass = (Class<E>) getEntityClass();
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<E> query = criteriaBuilder.createQuery(entityClass);
+    Root<E> root = query.from(entityClass);
+    if (specification != null) {
+      Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+      if (predicate != null) {
+        query.where(predicate);
+      }
+    }
+    query.orderBy(QueryUtils.toOrders(filterBuilder.getPage().getSort(), root, criteriaBuilder));
+
+    TypedQuery<E> typedQuery =
+        entityManager
+            .createQuery(query)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, getStreamFetchSize())
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+
+    long count = 0;
+    try (Stream<E> stream = typedQuery.getResultStream()) {
+      for (E entity : (Iterable<E>) stream::iterator) {
+        action.accept(mapper.toDto(entity));
+        if (++count % getStreamClearInterval() == 0) {
+          entityManager.clear();
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Realiza una búsqueda paginada por clave (keyset). En lugar de saltar filas con un OFFSET, la
+   * consulta continúa a partir de los valores de ordenación de la última fila de la página
+   * anterior, usando el identificador como desempate, por lo que el coste de cada página no
+   * depende de su profundidad.
+   *
+   * <p>Las propiedades de ordenación deben ser no nulas para que el cursor sea válido.
+   *
+   * @param page El objeto Pageable con el tamaño de página y la ordenación. El número de página se
+   *     ignora.
+   * @param search Una cadena de texto que contiene los criterios de búsqueda.
+   * @param after Cursor opaco devuelto en la página anterior, vacío para obtener la primera.
+   * @return Una página de DTOs con el cursor de la siguiente página.
+   */
+  public CursorPage<D> scroll(@NotNull Pageable page, String search, String after) {
+    GenericFilterBuilder<D, F> filterBuilder = instanceFilterBuilder(page, search);
+    Sort sort = filterBuilder.getPage().getSort();
+    KeysetScrollPosition position = KeysetCursor.decode(after, this::getAttributeType);
+    validateCursor(position, sort);
+
+    Window<E> window =
+        repository.findBy(
+            Specification.where(createSpecificationField(filterBuilder)),
+            query -> query.sortBy(sort).limit(page.getPageSize()).scroll(position));
+
+    List<D> result = window.getContent().stream().map(mapper::toDto).toList();
+    String nextCursor =
+        window.hasNext() && !window.isEmpty()
+            ? KeysetCursor.encode((KeysetScrollPosition) window.positionAt(window.size() - 1))
+            : null;
+    return new CursorPage<>(result, result.size(), window.hasNext(), nextCursor);
+  }
+
+  /**
+   * Comprueba que las claves del cursor coinciden con la ordenación solicitada más el
+   * identificador, para rechazar cursores generados con otra ordenación.
+   */
+  private void validateCursor(KeysetScrollPosition position, Sort sort) {
+    if (position.isInitial()) {
+      return;
+    }
+    Set<String> properties = new LinkedHashSet<>();
+    sort.forEach(order -> properties.add(order.getProperty()));
+    properties.add(EntityConstants.ID);
+    if (!properties.equals(position.getKeys().keySet())) {
+      throw new BadRequestException(
+          "El cursor no corresponde a la ordenación {0} de la búsqueda.", sort);
+    }
+  }
+
+  /**
+   * Obtiene el tipo Java de un atributo de la entidad, resolviendo el tipo genérico del
+   * identificador.
+   */
+  private Class<?> getAttributeType(String property) {
+    if (EntityConstants.ID.equals(property)) {
+      return ReflectionUtil.getSuperClass(this.getClass(), 1);
+    }
+    return ReflectionUtil.getFields(getEntityClass()).stream()
+        .filter(field -> field.getName().equals(property))
+        .map(Field::getType)
+        .findFirst()
+        .orElseThrow(
+            () -> new BadRequestException("{0} no es una clave válida del cursor.", property));
+  }
+
   /**
    * Realiza una búsqueda no paginada y devuelve los resultados.
    *
@@ -105,66 +982,87 @@ public abstract class GenericFilterService<
   /**
    * Crea una especificación de búsqueda en base a los filtros proporcionados.
    *
+   * <p>Los criterios leídos de la cadena de búsqueda se combinan siguiendo el árbol AND/OR del plan
+   * de búsqueda, de modo que toda la expresión se resuelve en una única consulta. Los criterios que
+   * no forman parte del árbol (por ejemplo, los añadidos por el filtro personalizado) se añaden con
+   * AND, y las hojas cuyo criterio ha sido retirado de los filtros se ignoran.
+   *
    * @param filterBuilder El constructor de filtros que contiene los criterios de búsqueda.
    * @return Una especificación que puede ser usada para realizar una búsqueda en el repositorio.
    */
   public Specification<E> createSpecificationField(GenericFilterBuilder<D, F> filterBuilder) {
-    List<Specification<E>> conditions = new ArrayList<>();
-
     if (ObjectUtils.isEmpty(filterBuilder.getFilters())) {
       return null;
     }
 
-    // Se recorren los filtros y se añaden las especificaciones correspondientes
-    for (SearchCriteria param : filterBuilder.getFilters()) {
-      if (ReflectionUtil.getFields(ReflectionUtil.getParameterizedTypeClass(this.getClass(), 0))
-          .stream()
-          .noneMatch(f -> param.getKey().startsWith(f.getName()))) {
-        throw new BadRequestException(
-            "{0} no es un filtro válido para la búsqueda.", param.getKey());
-      }
+    Set<SearchCriteria> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+    pending.addAll(filterBuilder.getFilters());
+    List<Specification<E>> conditions = new ArrayList<>();
 
-      if (!ObjectUtils.isEmpty(param.getValue())) {
-        // Si la clave contiene un punto y la especificación es nula, se crea una especificación
-        if (param.getKey().contains(".") && param.getSpecification() == null) {
-          Specification<E> specification = getSpecification(param);
-          conditions.add(specification);
-        }
-        // Si la clave no contiene un punto y la especificación no es nula, se añade la
-        // especificación
-        else if (param.getSpecification() != null) {
-          @SuppressWarnings("unchecked")
-          Specification<E> specification = (Specification<E>) param.getSpecification();
+    SearchNode<SearchCriteria> expression = filterBuilder.getPlan().getExpression();
+    if (expression != null) {
+      Specification<E> specification = createSpecification(expression, pending);
+      if (specification != null) {
+        conditions.add(specification);
+      }
+    }
+    // Se añaden con AND los filtros que no proceden de la cadena de búsqueda
+    for (SearchCriteria param : filterBuilder.getFilters()) {
+      if (pending.remove(param)) {
+        Specification<E> specification = createSpecification(param);
+        if (specification != null) {
           conditions.add(specification);
         }
-        // Si la clave no contiene un punto y la especificación es nula, se añade un filtro
-        else {
-          conditions.add(new FilterSpecification<>(param));
-        }
       }
     }
 
     return conditions.stream().reduce(Specification::and).orElse(null);
   }
 
-  private static <E extends GenericEntity> Specification<E> getSpecification(SearchCriteria param) {
-    return new FilterSpecification<>(param) {
-      @Override
-      public Predicate toPredicate(
-          Root<E> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
-
-        if (null == getSearchCriteria()) {
-          return null;
-        }
-        String[] parts = getSearchCriteria().getKey().split("\\.");
-        Join<E, Object> join = root.join(parts[0], JoinType.INNER);
+  /**
+   * Crea la especificación de un nodo del árbol de la búsqueda. Las hojas cuyo criterio no está
+   * pendiente se ignoran, y cada criterio usado se retira de los pendientes.
+   */
+  private Specification<E> createSpecification(
+      SearchNode<SearchCriteria> node, Set<SearchCriteria> pending) {
+    if (node.isLeaf()) {
+      return pending.remove(node.getValue()) ? createSpecification(node.getValue()) : null;
+    }
+    List<Specification<E>> children = new ArrayList<>();
+    for (SearchNode<SearchCriteria> child : node.getChildren()) {
+      Specification<E> specification = createSpecification(child, pending);
+      if (specification != null) {
+        children.add(specification);
+      }
+    }
+    if (children.isEmpty()) {
+      return null;
+    }
+    return node.getType() == SearchNode.Type.OR
+        ? Specification.anyOf(children)
+        : Specification.allOf(children);
+  }
 
-        String attributeValue = getSearchCriteria().getValue().toString();
+  /**
+   * Crea la especificación de un único criterio de búsqueda, validando que la clave corresponde a
+   * una propiedad de la entidad.
+   */
+  private Specification<E> createSpecification(SearchCriteria param) {
+    if (ReflectionUtil.getFields(getEntityClass()).stream()
+        .noneMatch(f -> param.getKey().startsWith(f.getName()))) {
+      throw new BadRequestException("{0} no es un filtro válido para la búsqueda.", param.getKey());
+    }
 
-        return criteriaBuilder.like(
-            criteriaBuilder.lower(join.get(parts[1]).as(String.class)),
-            "%" + attributeValue.toLowerCase() + "%");
-      }
-    };
+    if (ObjectUtils.isEmpty(param.getValue())) {
+      return null;
+    }
+    // Si el criterio tiene especificación propia, se añade la especificación
+    if (param.getSpecification() != null) {
+      @SuppressWarnings("unchecked")
+      Specification<E> specification = (Specification<E>) param.getSpecification();
+      return specification;
+    }
+    // En otro caso se añade un filtro, que resuelve también las rutas con puntos
+    return specificationCache.get(param, FilterSpecification::new);
   }
 }
@@ -1,18 +1,78 @@
 package org.barrikeit.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
 import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import lombok.AllArgsConstructor;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.extern.log4j.Log4j2;
 import org.barrikeit.model.domain.GenericEntity;
+import org.barrikeit.model.domain.Tombstone;
 import org.barrikeit.model.repository.GenericRepository;
+import org.barrikeit.rest.dto.BatchResult;
+import org.barrikeit.rest.dto.ChangeSet;
 import org.barrikeit.rest.dto.GenericDto;
 import org.barrikeit.service.mapper.GenericMapper;
+import org.barrikeit.service.mapper.WritableAttributes;
+import org.barrikeit.util.JsonMergePatch;
+import org.barrikeit.util.TimeUtil;
+import org.barrikeit.util.batch.BatchItem;
 import org.barrikeit.util.constants.EntityConstants;
 import org.barrikeit.util.constants.ExceptionConstants;
+import org.barrikeit.util.constants.UtilConstants;
+import org.barrikeit.util.exceptions.BadRequestException;
 import org.barrikeit.util.exceptions.NotFoundException;
+import org.barrikeit.util.exceptions.PreconditionFailedException;
+import org.barrikeit.util.exceptions.UnExpectedException;
+import org.barrikeit.util.filter.EntityProjection;
+import org.barrikeit.util.filter.KeysetCursor;
+import org.barrikeit.util.filter.SearchResultCache;
+import org.barrikeit.util.filter.SearchValueConverter;
+import org.barrikeit.util.filter.SparseFieldset;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.ErrorResponseException;
 
 /**
  * <b>Generic Service Class</b>
@@ -26,12 +86,34 @@ import org.springframework.transaction.annotation.Transactional;
  * @param <D> the DTO type that extends {@link GenericDto}.
  */
 @Log4j2
-@AllArgsConstructor
 public abstract class GenericService<
     E extends GenericEntity<I>, I extends Serializable, D extends GenericDto> {
+
+  /** Keys of the cursor of a page of changes, besides the {@code (updatedAt, id)} of entities. */
+  private static final String CHANGES_UNTIL = "until";
+
+  private static final String CHANGES_DELETED_AT = "deletedAt";
+  private static final String CHANGES_TOMBSTONE = "tombstone";
   private final GenericRepository<E, I> repository;
   private final GenericMapper<E, D> mapper;
 
+  @PersistenceContext private EntityManager entityManager;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private ObjectMapper objectMapper;
+
+  /** Projections of the entity by requested DTO fields, built on first use. */
+  private final Cache<Set<String>, EntityProjection<E>> projections =
+      Caffeine.newBuilder().maximumSize(UtilConstants.PROJECTION_CACHE_SIZE).build();
+
+  /** Attributes written by the mapper's update mapping, found on first use. */
+  private volatile Set<String> writableAttributes;
+
+  protected GenericService(GenericRepository<E, I> repository, GenericMapper<E, D> mapper) {
+    this.repository = repository;
+    this.mapper = mapper;
+  }
+
   /**
    * Retrieves a list of all DTOs sorted by their identifier.
    *
@@ -43,6 +125,25 @@ public abstract class GenericService<
         .toList();
   }
 
+  /**
+   * Retrieves a list of all DTOs sorted by their identifier, loading only the requested fields.
+   *
+   * @param fields the DTO fields to load, or an empty set to load the whole DTO.
+   * @return a list of DTOs representing all entities.
+   */
+  @Transactional(readOnly = true)
+  public List<D> findAll(Set<String> fields) {
+    Set<String> normalized = SparseFieldset.normalize(fields);
+    if (normalized.isEmpty()) {
+      return findAll();
+    }
+    return getProjection(normalized)
+        .getResultList(null, Sort.by(Sort.Direction.ASC, EntityConstants.ID), 0, -1)
+        .stream()
+        .map(mapper::toDto)
+        .toList();
+  }
+
   /**
    * Retrieves a list of all DTOs sorted by the specified sort criteria.
    *
@@ -86,6 +187,27 @@ public abstract class GenericService<
         .orElseThrow(() -> new NotFoundException(ExceptionConstants.NOT_FOUND, id));
   }
 
+  /**
+   * Retrieves a DTO by its identifier, loading only the requested fields.
+   *
+   * @param id the identifier of the entity to retrieve.
+   * @param fields the DTO fields to load, or an empty set to load the whole DTO.
+   * @return the DTO corresponding to the entity.
+   * @throws NotFoundException if the entity is not found.
+   */
+  @Transactional(readOnly = true)
+  public D find(I id, Set<String> fields) {
+    Set<String> normalized = SparseFieldset.normalize(fields);
+    if (normalized.isEmpty()) {
+      return find(id);
+    }
+    Specification<E> byId = (root, query, cb) -> cb.equal(root.get(EntityConstants.ID), id);
+    return getProjection(normalized).getResultList(byId, Sort.unsorted(), 0, 1).stream()
+        .findFirst()
+        .map(mapper::toDto)
+        .orElseThrow(() -> new NotFoundException(ExceptionConstants.NOT_FOUND, id));
+  }
+
   /**
    * Retrieves an entity by its identifier.
    *
@@ -107,9 +229,7 @@ public abstract class GenericService<
    */
   @Transactional
   public D save(D dto) {
-    E entity = mapper.toEntity(dto);
-    entity = repository.save(entity);
-    return mapper.toDto(entity);
+    return mapper.toDto(createEntity(dto));
   }
 
   /**
@@ -132,11 +252,166 @@ public abstract class GenericService<
    */
   @Transactional
   public D update(I id, D dto) {
+    return update(id, dto, null);
+  }
+
+  /**
+   * Updates an existing entity identified by its identifier with the provided DTO, if it is still
+   * at the expected version.
+   *
+   * @param id the identifier of the entity to update.
+   * @param dto the DTO containing the updated entity information.
+   * @param version the version the client read, or {@code null} to update any version.
+   * @return the updated DTO.
+   * @throws PreconditionFailedException if the entity is at another version.
+   */
+  @Transactional
+  public D update(I id, D dto, Long version) {
     E entity = findEntity(id);
-    mapper.updateEntity(dto, entity);
+    checkVersion(entity, version);
+    updateEntity(entity, dto);
     return mapper.toDto(repository.save(entity));
   }
 
+  /**
+   * Retrieves the version of an entity by its identifier, without loading the entity.
+   *
+   * @param id the identifier of the entity.
+   * @return the version of the entity.
+   * @throws NotFoundException if the entity is not found.
+   */
+  @Transactional(readOnly = true)
+  public Long findVersion(I id) {
+    return findVersion((root, query, cb) -> cb.equal(root.get(EntityConstants.ID), id), id);
+  }
+
+  /**
+   * Retrieves the entities created, modified or deleted after a date, so that clients can keep a
+   * local copy in sync without downloading the whole list. Modified entities are found by their
+   * {@code updatedAt} column and deleted ones by the tombstones recorded when they were deleted.
+   *
+   * <p>Changes are returned in pages of at most {@code size} modified entities and {@code size}
+   * deleted keys. While the returned {@code next} cursor is not {@code null}, the following page is
+   * requested with the same {@code since} and {@code after} set to that cursor. Each page continues
+   * from the {@code (updatedAt, id)} of the last modified entity and the {@code (deletedAt, id)} of
+   * the last tombstone of the previous one, so its cost does not depend on its depth.
+   *
+   * <p>The returned {@code since} is a little earlier than the time of the first page, so that rows
+   * written by transactions still running at that time are returned by the next sync. Clients
+   * apply changes by key, so receiving a row twice is harmless.
+   *
+   * @param since the {@code since} of the previous sync, or any date in {@link
+   *     UtilConstants#PATTERN_DATE_TIME} format.
+   * @param after the {@code next} cursor of the previous page, or empty for the first page.
+   * @param size the maximum number of modified entities and of deleted keys of the page, or {@code
+   *     null} for {@link UtilConstants#CHANGES_PAGE_SIZE}. It is capped at {@link
+   *     UtilConstants#CHANGES_MAX_PAGE_SIZE}.
+   * @param fields the DTO fields to load, or an empty set to load the whole DTO.
+   * @return the changed DTOs, the keys of the deleted entities, the next {@code since} and the
+   *     cursor of the next page.
+   * @throws BadRequestException if {@code since} is not a valid date or {@code after} is not a
+   *     valid cursor.
+   */
+  @Transactional(readOnly = true)
+  public ChangeSet<D> findChanges(String since, String after, Integer size, Set<String> fields) {
+    LocalDateTime from;
+    try {
+      from = TimeUtil.convertLocalDateTime(since.trim());
+    } catch (UnExpectedException e) {
+      throw new BadRequestException("{0} no es una fecha válida.", since);
+    }
+    int limit =
+        size == null
+            ? UtilConstants.CHANGES_PAGE_SIZE
+            : Math.clamp(size, 1, UtilConstants.CHANGES_MAX_PAGE_SIZE);
+    Map<String, Object> position = decodeChangesCursor(after);
+    LocalDateTime until = (LocalDateTime) position.get(CHANGES_UNTIL);
+    if (until == null) {
+      until = TimeUtil.localDateTimeNow().minusSeconds(UtilConstants.CHANGES_OVERLAP_SECONDS);
+    }
+
+    List<Tuple> keys =
+        findModifiedKeys(
+            from,
+            position.get(EntityConstants.UPDATED_AT),
+            position.get(EntityConstants.ID),
+            limit + 1);
+    List<Tombstone> tombstones =
+        findTombstones(
+            from, position.get(CHANGES_DELETED_AT), position.get(CHANGES_TOMBSTONE), limit + 1);
+    boolean hasNext = keys.size() > limit || tombstones.size() > limit;
+    keys = keys.subList(0, Math.min(keys.size(), limit));
+    tombstones = tombstones.subList(0, Math.min(tombstones.size(), limit));
+
+    Map<String, Object> next = new LinkedHashMap<>(position);
+    next.put(CHANGES_UNTIL, until);
+    if (!keys.isEmpty()) {
+      Tuple last = keys.get(keys.size() - 1);
+      next.put(EntityConstants.UPDATED_AT, last.get(EntityConstants.UPDATED_AT));
+      next.put(EntityConstants.ID, last.get(EntityConstants.ID));
+    }
+    if (!tombstones.isEmpty()) {
+      Tombstone last = tombstones.get(tombstones.size() - 1);
+      next.put(CHANGES_DELETED_AT, last.getDeletedAt());
+      next.put(CHANGES_TOMBSTONE, last.getId());
+    }
+
+    List<Object> ids = keys.stream().map(key -> key.get(EntityConstants.ID)).toList();
+    Specification<E> byIds = (root, query, cb) -> root.get(EntityConstants.ID).in(ids);
+    Sort sort = Sort.by(Sort.Direction.ASC, EntityConstants.UPDATED_AT, EntityConstants.ID);
+    Set<String> normalized = SparseFieldset.normalize(fields);
+    List<E> entities;
+    if (ids.isEmpty()) {
+      entities = List.of();
+    } else if (normalized.isEmpty()) {
+      entities = repository.findAll(byIds, sort);
+    } else {
+      entities = getProjection(normalized).getResultList(byIds, sort, 0, -1);
+    }
+    return new ChangeSet<>(
+        entities.stream().map(mapper::toDto).toList(),
+        tombstones.stream()
+            .map(Tombstone::getKey)
+            .distinct()
+            .map(key -> SearchValueConverter.convert(getBatchKeyProperty(), key, getBatchKeyType()))
+            .toList(),
+        TimeUtil.formatDateTime(until.isAfter(from) ? until : from),
+        hasNext ? KeysetCursor.encode(ScrollPosition.forward(next)) : null);
+  }
+
+  /**
+   * Applies a JSON Merge Patch to the entity identified by its identifier. Only the fields present
+   * in the patch change, and only the modified columns are written.
+   *
+   * @param id the identifier of the entity to update.
+   * @param patch the merge patch, a JSON object.
+   * @return the updated DTO.
+   * @throws NotFoundException if the entity is not found.
+   * @throws BadRequestException if the patch is not a valid DTO patch.
+   */
+  @Transactional
+  public D patch(I id, JsonNode patch) {
+    return patch(id, patch, null);
+  }
+
+  /**
+   * Applies a JSON Merge Patch to the entity identified by its identifier, if it is still at the
+   * expected version.
+   *
+   * @param id the identifier of the entity to update.
+   * @param patch the merge patch, a JSON object.
+   * @param version the version the client read, or {@code null} to update any version.
+   * @return the updated DTO.
+   * @throws PreconditionFailedException if the entity is at another version.
+   */
+  @Transactional
+  public D patch(I id, JsonNode patch, Long version) {
+    E entity = findEntity(id);
+    checkVersion(entity, version);
+    applyPatch(entity, patch);
+    return mapper.toDto(entity);
+  }
+
   /**
    * Deletes an entity identified by its identifier.
    *
@@ -144,6 +419,656 @@ public abstract class GenericService<
    */
   @Transactional
   public void delete(I id) {
-    repository.deleteById(id);
+    deleteAllById(List.of(id));
+  }
+
+  /**
+   * Deletes the entities with the given identifiers in a single statement, without loading them.
+   * The rows of the many-to-many join tables that reference them are removed in the same
+   * transaction.
+   *
+   * @param ids the identifiers of the entities to delete.
+   * @return the number of deleted entities.
+   */
+  @Transactional
+  public long deleteAllById(Collection<I> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    recordTombstones((root, query, cb) -> root.get(EntityConstants.ID).in(ids));
+    deleteJoinRows(() -> ids);
+    return afterBulkDelete(repository.bulkDeleteByIds(ids));
+  }
+
+  /**
+   * Saves the DTOs read from a batch. Items are persisted in chunks of {@link
+   * #getBatchChunkSize()}, each one flushed as JDBC batches and committed in its own transaction.
+   * A failing item does not stop the batch: its chunk is retried item by item so that only the
+   * failing items are rejected.
+   *
+   * @param items the items to save, read as the request arrives.
+   * @return the result of each item, in the order they were received.
+   */
+  public List<BatchResult> saveAll(Iterator<BatchItem<D>> items) {
+    return processBatch(
+        items,
+        chunk -> {
+          List<BatchResult> results = new ArrayList<>(chunk.size());
+          for (BatchItem<D> item : chunk) {
+            if (item.getValue() == null) {
+              results.add(BatchResult.failed(item.getIndex(), null, "Elemento vacío"));
+            } else {
+              E entity = createEntity(item.getValue());
+              results.add(BatchResult.ok(item.getIndex(), getBatchKey(entity)));
+            }
+          }
+          return results;
+        });
+  }
+
+  /**
+   * Updates the entities identified by the keys of the items with their DTOs. The entities of each
+   * chunk are loaded with a single query.
+   *
+   * @param items the items to update, each one with the key of its entity.
+   * @return the result of each item, in the order they were received.
+   * @see #saveAll(Iterator)
+   */
+  public List<BatchResult> updateAll(Iterator<BatchItem<D>> items) {
+    return processBatch(
+        items,
+        chunk -> {
+          Map<Object, E> entities = findAllByBatchKeys(chunk);
+          List<BatchResult> results = new ArrayList<>(chunk.size());
+          for (BatchItem<D> item : chunk) {
+            E entity = entities.get(item.getKey());
+            if (entity == null) {
+              results.add(batchNotFound(item));
+            } else if (item.getValue() == null) {
+              results.add(BatchResult.failed(item.getIndex(), item.getKey(), "Elemento vacío"));
+            } else {
+              updateEntity(entity, item.getValue());
+              results.add(BatchResult.ok(item.getIndex(), item.getKey()));
+            }
+          }
+          return results;
+        });
+  }
+
+  /**
+   * Deletes the entities identified by the keys of the items. The entities of each chunk are
+   * loaded with a single query and removed through the persistence context, so their join table
+   * rows are removed too.
+   *
+   * @param items the items to delete, each one with the key of its entity.
+   * @return the result of each item, in the order they were received.
+   * @see #saveAll(Iterator)
+   */
+  public List<BatchResult> deleteAll(Iterator<BatchItem<D>> items) {
+    return processBatch(
+        items,
+        chunk -> {
+          Map<Object, E> entities = findAllByBatchKeys(chunk);
+          List<BatchResult> results = new ArrayList<>(chunk.size());
+          List<Object> deleted = new ArrayList<>(chunk.size());
+          for (BatchItem<D> item : chunk) {
+            E entity = entities.remove(item.getKey());
+            if (entity == null) {
+              results.add(batchNotFound(item));
+            } else {
+              repository.delete(entity);
+              deleted.add(item.getKey());
+              results.add(BatchResult.ok(item.getIndex(), item.getKey()));
+            }
+          }
+          recordTombstones(deleted);
+          return results;
+        });
+  }
+
+  /**
+   * Creates and persists the entity represented by a DTO. Used by {@link #save(GenericDto)} and
+   * by batch saves, so services with their own creation rules only override this method.
+   *
+   * @param dto the DTO representing the entity to create.
+   * @return the persisted entity.
+   */
+  protected E createEntity(D dto) {
+    return repository.save(mapper.toEntity(dto));
+  }
+
+  /**
+   * Applies the values of a DTO to a managed entity. Used by {@link #update(Serializable,
+   * GenericDto)} and by batch updates.
+   *
+   * @param entity the entity to update.
+   * @param dto the DTO containing the updated entity information.
+   */
+  protected void updateEntity(E entity, D dto) {
+    mapper.updateEntity(dto, entity);
+  }
+  /**
+   * Indicates whether the service overrides any of the given hooks, such as {@code updateEntity}.
+   * Set-based operations that bypass the hooks use it to refuse services that customise them.
+   *
+   * @param hooks the names of the hook methods.
+   * @return {@code true} if a class of the service below this one declares any of the hooks.
+   */
+  protected boolean overridesHook(Set<String> hooks) {
+    for (Class<?> type = ClassUtils.getUserClass(getClass());
+        type != GenericService.class;
+        type = type.getSuperclass()) {
+      for (Method method : type.getDeclaredMethods()) {
+        if (!method.isBridge() && hooks.contains(method.getName())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Checks that an entity is at the version the client read. Hibernate checks the version again
+   * in the {@code UPDATE}, so a concurrent change after this check fails the flush.
+   *
+   * @param entity the entity loaded for update.
+   * @param version the expected version, or {@code null} to accept any version.
+   * @throws PreconditionFailedException if the entity is at another version.
+   */
+  protected void checkVersion(E entity, Long version) {
+    if (version != null && !version.equals(entity.getVersion())) {
+      throw new PreconditionFailedException(
+          ExceptionConstants.ERROR_VERSION_MISMATCH, version, entity.getVersion());
+    }
+  }
+
+  /**
+   * Retrieves the version of the entity matching a specification with a query that reads only the
+   * version column.
+   *
+   * @param specification the specification of the entity.
+   * @param key the identifier or code of the entity, for the error message.
+   * @return the version of the entity.
+   * @throws NotFoundException if the entity is not found.
+   */
+  protected Long findVersion(Specification<E> specification, Object key) {
+    @SuppressWarnings("unchecked")
+    Class<E> entityClass = (Class<E>) getEntityClass();
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+    Root<E> root = query.from(entityClass);
+    query
+        .select(root.get(EntityConstants.VERSION))
+        .where(specification.toPredicate(root, query, criteriaBuilder));
+    return entityManager
+        .createQuery(query)
+        .getResultStream()
+        .findFirst()
+        .orElseThrow(() -> new NotFoundException(ExceptionConstants.NOT_FOUND, key));
+  }
+
+  /**
+   * Applies a JSON Merge Patch to a managed entity: the patch is merged into the entity's DTO and
+   * the result is applied through {@link #updateEntity(GenericEntity, GenericDto)}. Unchanged
+   * values leave their columns clean, so the entity's dynamic update writes only the patched ones.
+   *
+   * @param entity the entity to update.
+   * @param patch the merge patch, a JSON object.
+   * @throws BadRequestException if the patch is not a valid DTO patch.
+   */
+  protected void applyPatch(E entity, JsonNode patch) {
+    if (patch == null || !patch.isObject()) {
+      throw new BadRequestException("El parche debe ser un objeto JSON.");
+    }
+    @SuppressWarnings("unchecked")
+    Class<D> dtoClass = (Class<D>) getDtoClass();
+    D dto;
+    try {
+      JsonNode merged = JsonMergePatch.apply(objectMapper.valueToTree(mapper.toDto(entity)), patch);
+      dto = objectMapper.treeToValue(merged, dtoClass);
+    } catch (JsonProcessingException | IllegalArgumentException e) {
+      throw new BadRequestException("El parche no es válido: {0}", e.getMessage());
+    }
+    updateEntity(entity, dto);
+  }
+
+  /**
+   * Returns the name of the property that identifies the entities of a batch update or delete.
+   *
+   * @return the identifier property.
+   */
+  public String getBatchKeyProperty() {
+    return EntityConstants.ID;
+  }
+
+  /**
+   * Returns the type of the property that identifies the entities of a batch update or delete.
+   *
+   * @return the identifier type.
+   */
+  public Class<?> getBatchKeyType() {
+    return ResolvableType.forClass(getClass()).as(GenericService.class).resolveGeneric(1);
+  }
+
+  /**
+   * Loads the entities with the given batch keys.
+   *
+   * @param keys the keys of the entities, of {@link #getBatchKeyType()}.
+   * @return the entities found, in any order.
+   */
+  @SuppressWarnings("unchecked")
+  protected List<E> findAllByBatchKeys(Collection<?> keys) {
+    return repository.findAllById((Collection<I>) keys);
+  }
+
+  /**
+   * Returns the batch key of an entity.
+   *
+   * @param entity the entity.
+   * @return the value of {@link #getBatchKeyProperty()}.
+   */
+  protected Object getBatchKey(E entity) {
+    return entity.getId();
+  }
+
+  /** Returns the number of batch items persisted and committed together. */
+  protected int getBatchChunkSize() {
+    return UtilConstants.BATCH_CHUNK_SIZE;
+  }
+
+  private Map<Object, E> findAllByBatchKeys(List<BatchItem<D>> chunk) {
+    List<Object> keys =
+        chunk.stream().map(BatchItem::getKey).filter(key -> key != null).distinct().toList();
+    Map<Object, E> entities = new HashMap<>();
+    if (!keys.isEmpty()) {
+      findAllByBatchKeys(keys).forEach(entity -> entities.put(getBatchKey(entity), entity));
+    }
+    return entities;
+  }
+
+  private BatchResult batchNotFound(BatchItem<D> item) {
+    return BatchResult.failed(
+        item.getIndex(),
+        item.getKey(),
+        MessageFormat.format(ExceptionConstants.ERROR_NOT_FOUND, item.getKey()));
+  }
+
+  private List<BatchResult> processBatch(
+      Iterator<BatchItem<D>> items, Function<List<BatchItem<D>>, List<BatchResult>> operation) {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    int chunkSize = getBatchChunkSize();
+    List<BatchResult> results = new ArrayList<>();
+    List<BatchItem<D>> chunk = new ArrayList<>(chunkSize);
+    while (items.hasNext()) {
+      BatchItem<D> item = items.next();
+      if (item.getError() != null) {
+        results.add(BatchResult.failed(item.getIndex(), item.getKey(), item.getError()));
+        continue;
+      }
+      chunk.add(item);
+      if (chunk.size() == chunkSize) {
+        results.addAll(processChunk(transaction, chunk, operation));
+        chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      results.addAll(processChunk(transaction, chunk, operation));
+    }
+    results.sort(Comparator.comparingInt(BatchResult::getIndex));
+    return results;
+  }
+
+  /**
+   * Runs the operation over a chunk in its own transaction. If the transaction fails, the chunk
+   * is retried item by item to reject only the failing items.
+   */
+  private List<BatchResult> processChunk(
+      TransactionTemplate transaction,
+      List<BatchItem<D>> chunk,
+      Function<List<BatchItem<D>>, List<BatchResult>> operation) {
+    try {
+      return transaction.execute(
+          status -> {
+            List<BatchResult> results = operation.apply(chunk);
+            entityManager.flush();
+            entityManager.clear();
+            return results;
+          });
+    } catch (RuntimeException e) {
+      if (chunk.size() > 1) {
+        log.debug("Batch chunk failed, retrying item by item: {}", e.getMessage());
+        List<BatchResult> results = new ArrayList<>(chunk.size());
+        chunk.forEach(item -> results.addAll(processChunk(transaction, List.of(item), operation)));
+        return results;
+      }
+      BatchItem<D> item = chunk.get(0);
+      log.warn("Batch item {} rejected: {}", item.getIndex(), e.getMessage(), e);
+      return List.of(BatchResult.failed(item.getIndex(), item.getKey(), getBatchMessage(e)));
+    }
+  }
+
+  /**
+   * Returns the message of an exception that rejected a batch item. Only API exceptions carry a
+   * message meant for the client; database and other exceptions get a generic message, like in
+   * the exception handler, so that constraint and column names are not exposed.
+   */
+  private static String getBatchMessage(RuntimeException e) {
+    if (e instanceof ErrorResponseException error) {
+      String detail = error.getBody().getDetail();
+      return detail != null
+          ? detail
+          : MessageFormat.format(
+              error.getDetailMessageCode(), error.getDetailMessageArguments());
+    }
+    // Exceptions thrown by a flush inside the chunk are not translated by Spring
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof OptimisticLockingFailureException
+          || cause instanceof OptimisticLockException) {
+        return ExceptionConstants.ERROR_CONCURRENT_MODIFICATION;
+      } else if (cause instanceof DataIntegrityViolationException
+          || cause instanceof ConstraintViolationException) {
+        return ExceptionConstants.ERROR_DATA_INTEGRITY;
+      }
+    }
+    return ExceptionConstants.ERROR_INTERNAL_SERVER;
+  }
+
+  /**
+   * Removes the rows of the join tables of other entities' many-to-many associations that
+   * reference the entities about to be bulk deleted. Bulk deletes only remove the join tables
+   * owned by the deleted entity itself. The owners that lose an element are touched first, so that
+   * {@link #findChanges(String, String, Integer, Set)} reports them and their ETags change.
+   *
+   * @param ids supplies the identifiers of the entities; only called if such join tables exist.
+   */
+  protected void deleteJoinRows(Supplier<Collection<?>> ids) {
+    List<AbstractCollectionPersister> joinTables = getReferencingJoinTables();
+    Collection<?> values = joinTables.isEmpty() ? List.of() : ids.get();
+    if (values.isEmpty()) {
+      return;
+    }
+    for (AbstractCollectionPersister joinTable : joinTables) {
+      touchOwners(joinTable, values);
+      // Declaring the table keeps Hibernate from evicting the whole second-level cache
+      int deleted =
+          entityManager
+              .createNativeQuery(
+                  "delete from "
+                      + joinTable.getTableName()
+                      + " where "
+                      + joinTable.getElementColumnNames()[0]
+                      + " in (:ids)")
+              .unwrap(NativeQuery.class)
+              .addSynchronizedQuerySpace(joinTable.getTableName())
+              .setParameter("ids", values)
+              .executeUpdate();
+      if (deleted > 0) {
+        SearchResultCache.invalidate(joinTable.getOwnerEntityPersister().getMappedClass());
+        if (joinTable.hasCache()) {
+          joinTable.getFactory().getCache().evictCollectionData(joinTable.getRole());
+        }
+      }
+    }
+  }
+
+  /**
+   * Advances the modification date and the version of the entities whose many-to-many association
+   * references any of the given elements. The bulk update also evicts the owners from the
+   * second-level cache.
+   *
+   * @param joinTable the association.
+   * @param ids the identifiers of the referenced elements.
+   */
+  private void touchOwners(AbstractCollectionPersister joinTable, Collection<?> ids) {
+    EntityPersister owner = joinTable.getOwnerEntityPersister();
+    if (!GenericEntity.class.isAssignableFrom(owner.getMappedClass())) {
+      return;
+    }
+    // The role is the owner entity name followed by the path of the association
+    String association = joinTable.getRole().substring(owner.getEntityName().length() + 1);
+    entityManager
+        .createQuery(
+            "update "
+                + owner.getEntityName()
+                + " o set o."
+                + EntityConstants.UPDATED_AT
+                + " = :now, o."
+                + EntityConstants.VERSION
+                + " = o."
+                + EntityConstants.VERSION
+                + " + 1 where o."
+                + EntityConstants.ID
+                + " in (select r."
+                + EntityConstants.ID
+                + " from "
+                + owner.getEntityName()
+                + " r join r."
+                + association
+                + " e where e."
+                + EntityConstants.ID
+                + " in (:ids))")
+        .setParameter("now", TimeUtil.localDateTimeNow())
+        .setParameter("ids", ids)
+        .executeUpdate();
+  }
+
+  /**
+   * Records the tombstones of the entities matching a specification, before they are bulk
+   * deleted, so that {@link #findChanges(String, String, Integer, Set)} reports their deletion.
+   *
+   * @param specification the specification of the entities about to be deleted.
+   */
+  protected void recordTombstones(Specification<E> specification) {
+    @SuppressWarnings("unchecked")
+    Class<E> entityClass = (Class<E>) getEntityClass();
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Object> query = criteriaBuilder.createQuery(Object.class);
+    Root<E> root = query.from(entityClass);
+    query
+        .select(root.get(getBatchKeyProperty()))
+        .where(specification.toPredicate(root, query, criteriaBuilder));
+    recordTombstones(entityManager.createQuery(query).getResultList());
+  }
+
+  /**
+   * Records the tombstones of deleted entities.
+   *
+   * @param keys the keys of the entities, the values of {@link #getBatchKeyProperty()}.
+   */
+  protected void recordTombstones(Collection<?> keys) {
+    String entityName = getEntityName();
+    LocalDateTime deletedAt = TimeUtil.localDateTimeNow();
+    for (Object key : keys) {
+      entityManager.persist(
+          Tombstone.builder()
+              .entity(entityName)
+              .key(String.valueOf(key))
+              .deletedAt(deletedAt)
+              .build());
+    }
+  }
+
+  /**
+   * Invalidates the cached searches of the entity after a bulk delete.
+   *
+   * @param count the number of deleted entities.
+   * @return the same count.
+   */
+  protected long afterBulkDelete(long count) {
+    if (count > 0) {
+      SearchResultCache.invalidate(getEntityClass());
+    }
+    return count;
+  }
+
+  /**
+   * Identifiers and modification dates of the entities modified after a date, in order of
+   * modification, continuing after the entity of a previous page. Only the keys are read here, so
+   * the page is found through the {@code updatedAt} index without loading whole rows.
+   */
+  private List<Tuple> findModifiedKeys(
+      LocalDateTime since, Object updatedAt, Object id, int limit) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+    Root<?> root = query.from(getEntityClass());
+    query
+        .multiselect(
+            root.get(EntityConstants.ID).alias(EntityConstants.ID),
+            root.get(EntityConstants.UPDATED_AT).alias(EntityConstants.UPDATED_AT))
+        .where(
+            criteriaBuilder.greaterThan(root.get(EntityConstants.UPDATED_AT), since),
+            isAfter(criteriaBuilder, root, EntityConstants.UPDATED_AT, updatedAt, id))
+        .orderBy(
+            criteriaBuilder.asc(root.get(EntityConstants.UPDATED_AT)),
+            criteriaBuilder.asc(root.get(EntityConstants.ID)));
+    return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+  }
+
+  /**
+   * Tombstones of the entities deleted after a date, in order of deletion, continuing after the
+   * tombstone of a previous page.
+   */
+  private List<Tombstone> findTombstones(
+      LocalDateTime since, Object deletedAt, Object id, int limit) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tombstone> query = criteriaBuilder.createQuery(Tombstone.class);
+    Root<Tombstone> root = query.from(Tombstone.class);
+    query
+        .where(
+            criteriaBuilder.equal(root.get("entity"), getEntityName()),
+            criteriaBuilder.greaterThan(root.get(CHANGES_DELETED_AT), since),
+            isAfter(criteriaBuilder, root, CHANGES_DELETED_AT, deletedAt, id))
+        .orderBy(
+            criteriaBuilder.asc(root.get(CHANGES_DELETED_AT)),
+            criteriaBuilder.asc(root.get(EntityConstants.ID)));
+    return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+  }
+
+  /**
+   * Rows after a {@code (date, id)} keyset position in ascending order, or every row if there is
+   * no position yet.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T extends Comparable<? super T>> Predicate isAfter(
+      CriteriaBuilder criteriaBuilder, Root<?> root, String dateAttribute, Object date, Object id) {
+    if (date == null || id == null) {
+      return criteriaBuilder.conjunction();
+    }
+    Path<LocalDateTime> datePath = root.get(dateAttribute);
+    Path<T> idPath = root.get(EntityConstants.ID);
+    return criteriaBuilder.or(
+        criteriaBuilder.greaterThan(datePath, (LocalDateTime) date),
+        criteriaBuilder.and(
+            criteriaBuilder.equal(datePath, date), criteriaBuilder.greaterThan(idPath, (T) id)));
+  }
+
+  /**
+   * Decodes the cursor of a page of changes into its keyset positions.
+   *
+   * @throws BadRequestException if the cursor is not a cursor of changes.
+   */
+  private Map<String, Object> decodeChangesCursor(String after) {
+    KeysetScrollPosition position =
+        KeysetCursor.decode(
+            after,
+            key ->
+                switch (key) {
+                  case CHANGES_UNTIL, EntityConstants.UPDATED_AT, CHANGES_DELETED_AT ->
+                      LocalDateTime.class;
+                  case EntityConstants.ID ->
+                      entityManager
+                          .getMetamodel()
+                          .entity(getEntityClass())
+                          .getIdType()
+                          .getJavaType();
+                  case CHANGES_TOMBSTONE -> Long.class;
+                  default ->
+                      throw new BadRequestException("{0} no es una clave válida del cursor.", key);
+                });
+    if (!position.isInitial() && !position.getKeys().containsKey(CHANGES_UNTIL)) {
+      throw new BadRequestException("{0} no es un cursor válido.", after);
+    }
+    return position.getKeys();
+  }
+
+  /** Returns the JPA name of the entity, the one recorded in its tombstones. */
+  private String getEntityName() {
+    return entityManager.getMetamodel().entity(getEntityClass()).getName();
+  }
+
+  /** Many-to-many join tables of other entities whose elements are this entity. */
+  private List<AbstractCollectionPersister> getReferencingJoinTables() {
+    List<AbstractCollectionPersister> joinTables = new ArrayList<>();
+    entityManager
+        .getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class)
+        .getMappingMetamodel()
+        .forEachCollectionDescriptor(
+            collection -> {
+              if (collection.isManyToMany()
+                  && !collection.isInverse()
+                  && collection
+                          .getAttributeMapping()
+                          .getElementDescriptor()
+                          .getPartMappingType()
+                          .getMappedJavaType()
+                          .getJavaTypeClass()
+                      == getEntityClass()
+                  && collection instanceof AbstractCollectionPersister persister) {
+                joinTables.add(persister);
+              }
+            });
+    return joinTables;
+  }
+
+  /**
+   * Returns the projection of the entity that loads only the columns of the requested DTO fields.
+   * Projections are cached by field set.
+   *
+   * @param fields the normalized DTO fields, or an empty set for every DTO attribute.
+   * @return the projection.
+   */
+  protected EntityProjection<E> getProjection(Set<String> fields) {
+    return projections.get(
+        fields,
+        key -> {
+          @SuppressWarnings("unchecked")
+          Class<E> entityClass = (Class<E>) getEntityClass();
+          return EntityProjection.of(entityManager, entityClass, getDtoClass(), key);
+        });
+  }
+
+  /**
+   * Returns the basic entity attributes a client can write through the DTO: those the mapper's
+   * {@link GenericMapper#updateEntity(GenericDto, GenericEntity)} copies from the DTO, found on
+   * first use. Attributes the mapping ignores, such as a password or a server-managed field, are
+   * left out. Subclasses may widen the set.
+   *
+   * @return the names of the writable attributes.
+   */
+  protected Set<String> getWritableAttributes() {
+    Set<String> attributes = writableAttributes;
+    if (attributes == null) {
+      @SuppressWarnings("unchecked")
+      Class<E> entityClass = (Class<E>) getEntityClass();
+      @SuppressWarnings("unchecked")
+      Class<D> dtoClass = (Class<D>) getDtoClass();
+      EntityType<E> entityType = entityManager.getMetamodel().entity(entityClass);
+      attributes = WritableAttributes.find(mapper, entityType, dtoClass);
+      writableAttributes = attributes;
+    }
+    return attributes;
+  }
+
+  /** Returns the entity class managed by the service. */
+  protected Class<?> getEntityClass() {
+    return ResolvableType.forClass(getClass()).as(GenericService.class).resolveGeneric(0);
+  }
+
+  /** Returns the DTO class managed by the service. */
+  protected Class<?> getDtoClass() {
+    return ResolvableType.forClass(getClass()).as(GenericService.class).resolveGeneric(2);
   }
 }
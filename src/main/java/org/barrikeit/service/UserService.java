@@ -1,13 +1,16 @@
 package org.barrikeit.service;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.log4j.Log4j2;
 import org.barrikeit.model.domain.Role;
 import org.barrikeit.model.domain.User;
 import org.barrikeit.model.repository.RoleRepository;
 import org.barrikeit.model.repository.UserRepository;
+import org.barrikeit.rest.dto.RoleDto;
 import org.barrikeit.rest.dto.UserDto;
 import org.barrikeit.service.mapper.UserMapper;
 import org.barrikeit.util.RandomUtil;
@@ -51,8 +54,7 @@ public class UserService extends GenericCodeService<User, Long, UUID, UserDto> {
   }
 
   @Override
-  @Transactional
-  public UserDto save(UserDto dto) {
+  protected User createEntity(UserDto dto) {
     User user = validateUserToCreateUpdate(dto, true);
     generateUserForCreateUpdate(dto, user);
     user.setUsername(dto.getUsername());
@@ -63,20 +65,21 @@ public class UserService extends GenericCodeService<User, Long, UUID, UserDto> {
 
     repository.save(user);
     sendEmail(user, "CREATE_USER");
-    return mapper.toDto(user);
+    return user;
   }
 
   @Override
-  @Transactional
-  public UserDto updateByCode(UUID code, UserDto dto) {
+  protected void updateEntity(User user, UserDto dto) {
     validateToggleActivationUser(dto, true);
-    User user = validateUserToCreateUpdate(dto, false);
+    if (!user.getUsername().equalsIgnoreCase(dto.getUsername())) {
+      validateNewUserName(dto);
+    }
+    if (!user.getEmail().equalsIgnoreCase(dto.getEmail())) {
+      validateMail(dto);
+    }
     generateUserForCreateUpdate(dto, user);
     mapper.updateEntity(dto, user);
-
-    repository.save(user);
     sendEmail(user, "UPDATE_USER");
-    return mapper.toDto(user);
   }
 
   @Transactional
@@ -129,6 +132,13 @@ public class UserService extends GenericCodeService<User, Long, UUID, UserDto> {
     return user;
   }
 
+  private void validateNewUserName(UserDto dto) {
+    if (repository.findByUsernameEqualsIgnoreCase(dto.getUsername()).isPresent()) {
+      throw new BadRequestException(
+          ExceptionConstants.ERROR_USER_NAME_ALREADY_EXISTS, dto.getUsername());
+    }
+  }
+
   private void validateMail(UserDto dto) {
     if (repository.findByEmailEqualsIgnoreCase(dto.getEmail()).isPresent()) {
       throw new BadRequestException(
@@ -143,18 +153,17 @@ public class UserService extends GenericCodeService<User, Long, UUID, UserDto> {
 
   private void validateRol(UserDto dto, User user) {
     if (!dto.getRoles().isEmpty()) {
-      Set<Role> roles =
-          dto.getRoles().stream()
-              .map(
-                  role ->
-                      roleRepository
-                          .findByCode(role.getCode())
-                          .orElseThrow(
-                              () ->
-                                  new NotFoundException(ExceptionConstants.ERROR_NOT_FOUND, role)))
-              .collect(Collectors.toSet());
+      Set<String> codes = dto.getRoles().stream().map(RoleDto::getCode).collect(Collectors.toSet());
+      Map<String, Role> roles =
+          roleRepository.findAllByCodeIn(codes).stream()
+              .collect(Collectors.toMap(Role::getCode, Function.identity()));
+      for (RoleDto role : dto.getRoles()) {
+        if (!roles.containsKey(role.getCode())) {
+          throw new NotFoundException(ExceptionConstants.ERROR_NOT_FOUND, role);
+        }
+      }
       user.getRoles().clear();
-      user.getRoles().addAll(roles);
+      user.getRoles().addAll(roles.values());
     }
   }
 
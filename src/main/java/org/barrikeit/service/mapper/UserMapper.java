@@ -20,6 +20,10 @@ public interface UserMapper extends GenericMapper<User, UserDto> {
   @Mapping(target = "code", ignore = true)
   @Mapping(target = "password", ignore = true)
   @Mapping(target = "roles", ignore = true)
+  @Mapping(target = "registrationDate", ignore = true)
+  @Mapping(target = "verificationToken", ignore = true)
+  @Mapping(target = "loginDate", ignore = true)
+  @Mapping(target = "loginAttempts", ignore = true)
   void updateEntity(UserDto source, @MappingTarget User target);
 
   @Mapping(target = "password", ignore = true)
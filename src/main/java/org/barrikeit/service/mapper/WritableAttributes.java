@@ -0,0 +1,134 @@
+package org.barrikeit.service.mapper;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.barrikeit.model.domain.GenericEntity;
+import org.barrikeit.rest.dto.GenericDto;
+import org.barrikeit.util.ReflectionUtil;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * <b>Writable Attributes</b>
+ *
+ * <p>Finds the basic attributes of an entity that a {@link GenericMapper} writes from its DTO in
+ * {@link GenericMapper#updateEntity(GenericDto, GenericEntity)}, that is, the columns a client can
+ * change through the DTO. Attributes ignored by the mapping, such as a password that is encoded by
+ * the service, are left out.
+ *
+ * <p>The generated mappers cannot be inspected, so each attribute is probed: a DTO holding a sample
+ * value in the field of the same name is mapped onto a new entity, once with each of two different
+ * samples, and the attribute is writable if the entity receives different values.
+ */
+public class WritableAttributes {
+
+  private WritableAttributes() {
+    throw new IllegalStateException("WritableAttributes class");
+  }
+
+  /**
+   * Finds the basic attributes of an entity written by the mapper's update mapping.
+   *
+   * @param mapper the mapper of the entity.
+   * @param entityType the metamodel type of the entity.
+   * @param dtoClass the DTO class of the mapper.
+   * @return the names of the writable attributes, never the identifier or the version.
+   */
+  public static <E extends GenericEntity<?>, D extends GenericDto> Set<String> find(
+      GenericMapper<E, D> mapper, EntityType<E> entityType, Class<D> dtoClass) {
+    Map<String, Field> dtoFields =
+        ReflectionUtil.getFields(dtoClass).stream()
+            .collect(Collectors.toMap(Field::getName, Function.identity(), (a, b) -> a));
+    Set<String> writable = new TreeSet<>();
+    for (SingularAttribute<? super E, ?> attribute : entityType.getSingularAttributes()) {
+      Field dtoField = dtoFields.get(attribute.getName());
+      if (dtoField != null
+          && attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC
+          && !attribute.isId()
+          && !attribute.isVersion()) {
+        Field entityField = (Field) attribute.getJavaMember();
+        ReflectionUtils.makeAccessible(entityField);
+        ReflectionUtils.makeAccessible(dtoField);
+        Class<E> entityClass = entityType.getJavaType();
+        Object[] samples = getSamples(dtoField.getType());
+        if (samples.length > 1
+            && !Objects.equals(
+                probe(mapper, entityClass, entityField, dtoClass, dtoField, samples[0]),
+                probe(mapper, entityClass, entityField, dtoClass, dtoField, samples[1]))) {
+          writable.add(attribute.getName());
+        }
+      }
+    }
+    return Set.copyOf(writable);
+  }
+
+  /**
+   * Maps a DTO holding a sample value in one field onto a new entity.
+   *
+   * @return the value the entity field receives, or {@code null} if the mapping fails (a
+   *     conversion of the sample, for example).
+   */
+  private static <E extends GenericEntity<?>, D extends GenericDto> Object probe(
+      GenericMapper<E, D> mapper,
+      Class<E> entityClass,
+      Field entityField,
+      Class<D> dtoClass,
+      Field dtoField,
+      Object sample) {
+    try {
+      D dto = BeanUtils.instantiateClass(dtoClass);
+      ReflectionUtils.setField(dtoField, dto, sample);
+      E entity = BeanUtils.instantiateClass(entityClass);
+      mapper.updateEntity(dto, entity);
+      return ReflectionUtils.getField(entityField, entity);
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  /** Two different values of a type, or none if the type has no samples. */
+  private static Object[] getSamples(Class<?> type) {
+    if (type == String.class) {
+      return new Object[] {"a", "b"};
+    } else if (type == Long.class || type == long.class) {
+      return new Object[] {1L, 2L};
+    } else if (type == Integer.class || type == int.class) {
+      return new Object[] {1, 2};
+    } else if (type == Short.class || type == short.class) {
+      return new Object[] {(short) 1, (short) 2};
+    } else if (type == Double.class || type == double.class) {
+      return new Object[] {1d, 2d};
+    } else if (type == Float.class || type == float.class) {
+      return new Object[] {1f, 2f};
+    } else if (type == Boolean.class || type == boolean.class) {
+      return new Object[] {true, false};
+    } else if (type == BigDecimal.class) {
+      return new Object[] {BigDecimal.ONE, BigDecimal.TEN};
+    } else if (type == BigInteger.class) {
+      return new Object[] {BigInteger.ONE, BigInteger.TEN};
+    } else if (type == UUID.class) {
+      return new Object[] {new UUID(0, 1), new UUID(0, 2)};
+    } else if (type == LocalDate.class) {
+      return new Object[] {LocalDate.of(2000, 1, 1), LocalDate.of(2000, 1, 2)};
+    } else if (type == LocalDateTime.class) {
+      return new Object[] {LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(2000, 1, 2, 0, 0)};
+    } else if (type.isEnum() && type.getEnumConstants().length > 1) {
+      Object[] constants = type.getEnumConstants();
+      return new Object[] {constants[0], constants[constants.length - 1]};
+    }
+    return new Object[0];
+  }
+}
@@ -0,0 +1,44 @@
+package org.barrikeit.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Aplicación de documentos JSON Merge Patch (RFC 7396): los campos del parche sustituyen a los del
+ * documento, los objetos se combinan recursivamente y un {@code null} elimina el campo.
+ */
+public class JsonMergePatch {
+
+  private JsonMergePatch() {
+    throw new IllegalStateException("JsonMergePatch class");
+  }
+
+  /**
+   * Aplica un parche a un documento.
+   *
+   * @param target Documento original, que se modifica si es un objeto.
+   * @param patch Parche a aplicar.
+   * @return El documento resultante.
+   */
+  public static JsonNode apply(JsonNode target, JsonNode patch) {
+    if (!patch.isObject()) {
+      return patch;
+    }
+    ObjectNode result =
+        target != null && target.isObject()
+            ? (ObjectNode) target
+            : JsonNodeFactory.instance.objectNode();
+    patch
+        .fields()
+        .forEachRemaining(
+            field -> {
+              if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+              } else {
+                result.set(field.getKey(), apply(result.get(field.getKey()), field.getValue()));
+              }
+            });
+    return result;
+  }
+}
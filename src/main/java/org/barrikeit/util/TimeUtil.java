@@ -13,6 +13,15 @@ import org.springframework.stereotype.Component;
 @Component
 public class TimeUtil {
 
+  private static final DateTimeFormatter LOCAL_DATE_FORMATTER =
+      DateTimeFormatter.ofPattern(UtilConstants.PATTERN_LOCAL_DATE);
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern(UtilConstants.PATTERN_DATE_TIME);
+  private static final DateTimeFormatter LOCAL_DATE_DOWNLOAD_FORMATTER =
+      DateTimeFormatter.ofPattern(UtilConstants.PATTERN_LOCAL_DATE_DOWNLOAD);
+  private static final DateTimeFormatter DATE_TIME_DOWNLOAD_FORMATTER =
+      DateTimeFormatter.ofPattern(UtilConstants.PATTERN_DATE_TIME_DOWNLOAD);
+
   private static String zone;
 
   @Value("${server.timeZone}")
@@ -37,22 +46,19 @@ public class TimeUtil {
   }
 
   public static LocalDate convertLocalDate(String date) {
-    DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(UtilConstants.PATTERN_LOCAL_DATE);
     try {
-      return LocalDate.parse(date, dateFormat);
+      return LocalDate.parse(date, LOCAL_DATE_FORMATTER);
     } catch (DateTimeParseException e) {
       throw new IllegalArgumentException("Formato de fecha y hora inválido: " + date);
     }
   }
 
   public static LocalDateTime convertLocalDateTime(String date) {
-    DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(UtilConstants.PATTERN_LOCAL_DATE);
-    DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern(UtilConstants.PATTERN_DATE_TIME);
     try {
-      return LocalDateTime.parse(date, dateTimeFormat);
+      return LocalDateTime.parse(date, DATE_TIME_FORMATTER);
     } catch (DateTimeParseException e) {
       try {
-        return LocalDateTime.of(LocalDate.parse(date, dateFormat), LocalTime.MIN);
+        return LocalDateTime.of(LocalDate.parse(date, LOCAL_DATE_FORMATTER), LocalTime.MIN);
       } catch (DateTimeParseException ex) {
         throw new UnExpectedException("Formato de fecha y hora inválido: " + date);
       }
@@ -68,14 +74,14 @@ public class TimeUtil {
   }
 
   public static String formatLocalDate(LocalDate date) {
-    DateTimeFormatter dateFormatter =
-        DateTimeFormatter.ofPattern(UtilConstants.PATTERN_LOCAL_DATE_DOWNLOAD);
-    return date.format(dateFormatter);
+    return date.format(LOCAL_DATE_DOWNLOAD_FORMATTER);
+  }
+
+  public static String formatDateTime(LocalDateTime date) {
+    return date.format(DATE_TIME_FORMATTER);
   }
 
   public static String formatLocalDateTime(LocalDateTime date) {
-    DateTimeFormatter dateTimeFormatter =
-        DateTimeFormatter.ofPattern(UtilConstants.PATTERN_DATE_TIME_DOWNLOAD);
-    return date.format(dateTimeFormatter);
+    return date.format(DATE_TIME_DOWNLOAD_FORMATTER);
   }
 }
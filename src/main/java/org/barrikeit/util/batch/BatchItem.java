@@ -0,0 +1,33 @@
+package org.barrikeit.util.batch;
+
+import lombok.Getter;
+
+/**
+ * Elemento leído del cuerpo de una operación por lotes: su posición en el array, la clave de la
+ * entidad a la que se aplica y el valor recibido, o el error si no se ha podido leer.
+ *
+ * @param <T> Tipo del valor del elemento.
+ */
+@Getter
+public class BatchItem<T> {
+
+  private final int index;
+  private final Object key;
+  private final T value;
+  private final String error;
+
+  private BatchItem(int index, Object key, T value, String error) {
+    this.index = index;
+    this.key = key;
+    this.value = value;
+    this.error = error;
+  }
+
+  public static <T> BatchItem<T> of(int index, Object key, T value) {
+    return new BatchItem<>(index, key, value, null);
+  }
+
+  public static <T> BatchItem<T> failed(int index, String error) {
+    return new BatchItem<>(index, null, null, error);
+  }
+}
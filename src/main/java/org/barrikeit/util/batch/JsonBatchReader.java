@@ -0,0 +1,103 @@
+package org.barrikeit.util.batch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.barrikeit.util.exceptions.BadRequestException;
+
+/**
+ * Lee el cuerpo de una operación por lotes, un array JSON, elemento a elemento a medida que llega
+ * la petición, de forma que en memoria solo está el elemento que se está leyendo y no el array
+ * completo.
+ *
+ * <p>Los errores de un elemento (formato, tipos o validación) se devuelven como un {@link
+ * BatchItem} fallido y la lectura continúa con el siguiente. Si el JSON deja de ser válido se
+ * devuelve un último elemento fallido y la lectura termina, ya que no se puede saber dónde empieza
+ * el siguiente elemento.
+ *
+ * @param <T> Tipo del valor de los elementos.
+ */
+public class JsonBatchReader<T> implements Iterator<BatchItem<T>>, Closeable {
+
+  /** Convierte un elemento del array en el {@link BatchItem} que se procesará. */
+  @FunctionalInterface
+  public interface ItemReader<T> {
+    BatchItem<T> read(int index, JsonNode node) throws JsonProcessingException;
+  }
+
+  private final JsonParser parser;
+  private final ItemReader<T> itemReader;
+  private BatchItem<T> next;
+  private boolean finished;
+  private int index;
+
+  /**
+   * @param objectMapper Mapper con el que se crea el parser.
+   * @param input Cuerpo de la petición.
+   * @param itemReader Conversión de cada elemento.
+   * @throws BadRequestException si el cuerpo no empieza por un array JSON.
+   */
+  public JsonBatchReader(ObjectMapper objectMapper, InputStream input, ItemReader<T> itemReader)
+      throws IOException {
+    this.parser = objectMapper.createParser(input);
+    this.itemReader = itemReader;
+    if (parser.nextToken() != JsonToken.START_ARRAY) {
+      parser.close();
+      throw new BadRequestException("El cuerpo de la petición debe ser un array JSON.");
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !finished) {
+      next = readNext();
+    }
+    return next != null;
+  }
+
+  @Override
+  public BatchItem<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    BatchItem<T> item = next;
+    next = null;
+    return item;
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+
+  private BatchItem<T> readNext() {
+    JsonNode node;
+    try {
+      JsonToken token = parser.nextToken();
+      if (token == null || token == JsonToken.END_ARRAY) {
+        finished = true;
+        return null;
+      }
+      node = parser.readValueAsTree();
+    } catch (IOException e) {
+      finished = true;
+      return BatchItem.failed(index, "JSON no válido: " + e.getMessage());
+    }
+    int current = index++;
+    try {
+      return itemReader.read(current, node);
+    } catch (JsonProcessingException e) {
+      return BatchItem.failed(current, e.getOriginalMessage());
+    } catch (ConstraintViolationException | IllegalArgumentException e) {
+      return BatchItem.failed(current, e.getMessage());
+    }
+  }
+}
@@ -6,6 +6,7 @@ public class ConfigurationConstants {
   }
 
   public static final String DEFAULT_SERVLET_NAME = "/generic";
+  public static final long ASYNC_REQUEST_TIMEOUT = 60L * 60L * 1000L;
 
   public static final String COMPONENT_PACKAGE_TO_SCAN = "org.barrikeit";
   public static final String APPLICATION_PACKAGE = "org.barrikeit.application";
@@ -10,12 +10,28 @@ public class EntityConstants {
   public static final String USERS = "users";
   public static final String ROLES = "roles";
   public static final String MODULES = "modules";
+  public static final String TOMBSTONES = "tombstones";
+  public static final String ROLE_MODULES = "role_modules";
+  public static final String USER_ROLES = "user_roles";
   // ids
   public static final String ID = "id";
   public static final String ID_LOCATION = "id_location";
   public static final String ID_USER = "id_user";
   public static final String ID_ROLE = "id_role";
   public static final String ID_MODULE = "id_module";
+  public static final String ID_TOMBSTONE = "id_tombstone";
+  // sequences
+  public static final String ID_GENERATOR = "id_generator";
+  public static final String LOCATIONS_SEQ = "locations_seq";
+  public static final String USERS_SEQ = "users_seq";
+  public static final String ROLES_SEQ = "roles_seq";
+  public static final String MODULES_SEQ = "modules_seq";
+  public static final String TOMBSTONES_SEQ = "tombstones_seq";
+  public static final int LOCATIONS_ALLOCATION_SIZE = 50;
+  public static final int USERS_ALLOCATION_SIZE = 100;
+  public static final int ROLES_ALLOCATION_SIZE = 10;
+  public static final int MODULES_ALLOCATION_SIZE = 10;
+  public static final int TOMBSTONES_ALLOCATION_SIZE = 50;
   // codes
   public static final String CODE = "code";
   public static final String CODE_LOCATION = "code_location";
@@ -24,4 +40,10 @@ public class EntityConstants {
   public static final String CODE_MODULE = "code_module";
 
   // columns
+  public static final String VERSION = "version";
+  public static final String CREATED_AT_COLUMN = "created_at";
+  public static final String UPDATED_AT_COLUMN = "updated_at";
+  // audit
+  public static final String CREATED_AT = "createdAt";
+  public static final String UPDATED_AT = "updatedAt";
 }
@@ -11,11 +11,19 @@ public class ExceptionConstants {
   public static final String BAD_REQUEST = "The received request has an incorrect format";
   public static final String INTERNAL_SERVER_ERROR = "Internal Server Error";
   public static final String NOT_FOUND = "Not found Exception";
+  public static final String PRECONDITION_FAILED = "Precondition Failed";
+  public static final String CONFLICT = "Conflict";
 
   // Mensages para las nuevas instancias de las Excepciones que extiendan de GenericException()
   public static final String ERROR_INTERNAL_SERVER =
       "An internal error has occurred. Please contact the administrator.";
   public static final String ERROR_NOT_FOUND = "Entity not found, {0}";
+  public static final String ERROR_VERSION_MISMATCH =
+      "The entity has been modified, expected version {0} but found {1}";
+  public static final String ERROR_CONCURRENT_MODIFICATION =
+      "The entity has been modified by another request";
+  public static final String ERROR_DATA_INTEGRITY =
+      "The entity conflicts with existing data or violates a constraint";
   public static final String ERROR_PARAMS_VALIDATION = "Invalid parameters";
   public static final String ERROR_FIELD_GET_VALUE =
       "Error al obtener el valor del campo {0} de la clase {1}.";
@@ -6,8 +6,30 @@ public class UtilConstants {
   }
 
   public static final String SEPARADOR_CAMPOS_BUSQUEDA = ";";
+  public static final String SEPARADOR_VALORES_BUSQUEDA = ",";
   public static final String EXPRESION_REGULAR_PARAMETROS =
-          "(\\w+)([:!><])([^" + SEPARADOR_CAMPOS_BUSQUEDA + "]+)";
+          "(\\w+(?:\\.\\w+)*)([:!><~@])([^" + SEPARADOR_CAMPOS_BUSQUEDA + "]+)";
+  public static final int SEARCH_IN_MAX_VALUES = 1000;
+  public static final int SEARCH_PLAN_CACHE_SIZE = 512;
+  public static final int COUNT_CACHE_SIZE = 1024;
+  public static final long COUNT_CACHE_TTL_SECONDS = 30;
+  public static final int CONCURRENT_COUNT_MAX_TASKS = 2;
+  public static final long CONCURRENT_COUNT_TIMEOUT_MILLIS = 2000;
+  public static final int STREAM_FETCH_SIZE = 500;
+  public static final int STREAM_CLEAR_INTERVAL = 500;
+  public static final String FUNCION_UNACCENT = "f_unaccent";
+  public static final int PROJECTION_BATCH_SIZE = 500;
+  public static final int PROJECTION_MAX_DEPTH = 3;
+  public static final int PROJECTION_CACHE_SIZE = 64;
+  public static final long RESULT_CACHE_MAX_WEIGHT = 10_000;
+  public static final long RESULT_CACHE_TTL_SECONDS = 60;
+  public static final int FACET_MAX_FIELDS = 10;
+  public static final int FACET_MAX_VALUES = 100;
+  public static final int BATCH_CHUNK_SIZE = 500;
+  public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+  public static final long CHANGES_OVERLAP_SECONDS = 30;
+  public static final int CHANGES_PAGE_SIZE = 500;
+  public static final int CHANGES_MAX_PAGE_SIZE = 5000;
 
   public static final String PATTERN_LOCAL_DATE = "dd/MM/yyyy";
   public static final String PATTERN_DATE_TIME = "dd/MM/yyyy HH:mm:ss";
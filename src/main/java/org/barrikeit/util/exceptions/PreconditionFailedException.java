@@ -0,0 +1,23 @@
+package org.barrikeit.util.exceptions;
+
+import java.net.URI;
+import org.barrikeit.util.constants.ExceptionConstants;
+import org.springframework.http.HttpStatus;
+
+public class PreconditionFailedException extends GenericException {
+
+  static final URI TYPE = URI.create("");
+
+  public PreconditionFailedException(String message) {
+    super(HttpStatus.PRECONDITION_FAILED, message);
+  }
+
+  public PreconditionFailedException(String message, Object... messageArgs) {
+    super(
+        HttpStatus.PRECONDITION_FAILED,
+        TYPE,
+        ExceptionConstants.PRECONDITION_FAILED,
+        message,
+        messageArgs);
+  }
+}
@@ -0,0 +1,82 @@
+package org.barrikeit.util.filter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+import org.barrikeit.util.constants.UtilConstants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ejecutor de los recuentos de {@link CountStrategy#CONCURRENT}, que se lanzan mientras se obtiene
+ * la página de resultados.
+ *
+ * <p>Cada recuento se ejecuta en un hilo virtual, pero el número de recuentos simultáneos está
+ * limitado para no agotar las conexiones del pool: si se alcanza el límite el recuento no se lanza
+ * y la búsqueda debe ejecutarlo de forma secuencial. Como cada petición ya ocupa una conexión con
+ * la consulta de la página, el límite ({@code search.concurrent-count.max-tasks}) debe quedar muy
+ * por debajo del tamaño del pool; si no se configura es la cuarta parte de {@code
+ * spring.datasource.hikari.maximum-pool-size}.
+ */
+@Component
+public class CountExecutor {
+
+  private static final ThreadFactory THREADS =
+      Thread.ofVirtual().name("search-count-", 0).factory();
+
+  private static volatile Semaphore permits =
+      new Semaphore(UtilConstants.CONCURRENT_COUNT_MAX_TASKS);
+
+  @Value(
+      "${search.concurrent-count.max-tasks:"
+          + "#{${spring.datasource.hikari.maximum-pool-size:10} / 4}}")
+  public void setMaxTasksStatic(int maxTasks) {
+    CountExecutor.permits = new Semaphore(Math.max(1, maxTasks));
+  }
+
+  /**
+   * Lanza un recuento en un hilo virtual si no se ha alcanzado el límite de recuentos simultáneos.
+   * Cancelar el resultado con {@code cancel(true)} interrumpe el hilo, lo que aborta la espera de
+   * una conexión o la consulta en curso y libera la conexión.
+   *
+   * @param count Función que ejecuta el recuento.
+   * @return El resultado futuro del recuento, o {@code null} si no se ha podido lanzar.
+   */
+  public static CompletableFuture<Long> submit(Supplier<Long> count) {
+    Semaphore acquired = permits;
+    if (!acquired.tryAcquire()) {
+      return null;
+    }
+    CountFuture future = new CountFuture();
+    Thread thread =
+        THREADS.newThread(
+            () -> {
+              try {
+                future.complete(count.get());
+              } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+              } finally {
+                acquired.release();
+              }
+            });
+    future.thread = thread;
+    thread.start();
+    return future;
+  }
+
+  /** Resultado de un recuento que interrumpe su hilo al cancelarse. */
+  private static final class CountFuture extends CompletableFuture<Long> {
+
+    private volatile Thread thread;
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled && mayInterruptIfRunning) {
+        thread.interrupt();
+      }
+      return cancelled;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package org.barrikeit.util.filter;
+
+import java.util.Locale;
+import org.barrikeit.util.exceptions.BadRequestException;
+import org.springframework.util.ObjectUtils;
+
+/** Estrategias para obtener el total de elementos de una búsqueda paginada. */
+public enum CountStrategy {
+  /** Ejecuta siempre la consulta {@code count} exacta. */
+  EXACT,
+  /** No cuenta: devuelve un Slice indicando si existe página siguiente. */
+  NONE,
+  /** Usa una estimación del total: la del planificador de Postgres o un recuento cacheado. */
+  ESTIMATED,
+  /** Usa el recuento exacto memorizado durante un tiempo para cada búsqueda. */
+  CACHED,
+  /**
+   * Ejecuta el recuento exacto en paralelo con la consulta de la página. Si no termina a tiempo se
+   * usa un recuento memorizado o una estimación y, si no hay ninguno, se devuelve un Slice.
+   */
+  CONCURRENT;
+
+  /**
+   * Obtiene la estrategia a partir de su nombre, sin distinguir mayúsculas de minúsculas.
+   *
+   * @param value Nombre de la estrategia.
+   * @return La estrategia, o {@code null} si no se ha indicado ninguna.
+   * @throws BadRequestException si el nombre no corresponde a ninguna estrategia.
+   */
+  public static CountStrategy of(String value) {
+    if (ObjectUtils.isEmpty(value)) {
+      return null;
+    }
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("{0} no es una estrategia de recuento válida.", value);
+    }
+  }
+}
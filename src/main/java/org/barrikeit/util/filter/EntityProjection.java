@@ -0,0 +1,337 @@
+package org.barrikeit.util.filter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.barrikeit.rest.dto.GenericDto;
+import org.barrikeit.util.ReflectionUtil;
+import org.barrikeit.util.constants.UtilConstants;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Carga entidades seleccionando únicamente las columnas de los atributos que aparecen en su DTO.
+ *
+ * <p>En lugar de obtener entidades gestionadas, la consulta principal devuelve filas planas
+ * ({@link Tuple}) con los atributos básicos de la entidad y de sus asociaciones a uno (mediante
+ * LEFT JOIN). Las asociaciones a muchos se cargan después con una consulta por colección filtrada
+ * por los identificadores ya leídos, de modo que no se multiplican las filas de la página.
+ *
+ * <p>Con esas filas se construyen instancias de la entidad no gestionadas: no pasan por el contexto
+ * de persistencia, no tienen proxies ni copias para el dirty checking, y se transforman en DTO con
+ * el mismo mapper que el resto de búsquedas. Los atributos que no están en el DTO quedan con su
+ * valor por defecto.
+ *
+ * @param <E> Tipo de la entidad.
+ */
+public class EntityProjection<E> {
+
+  private final EntityManager entityManager;
+  private final Class<E> entityClass;
+  private final Node root;
+
+  private EntityProjection(EntityManager entityManager, Class<E> entityClass, Node root) {
+    this.entityManager = entityManager;
+    this.entityClass = entityClass;
+    this.root = root;
+  }
+
+  /**
+   * Crea la proyección de una entidad con los atributos de su DTO.
+   *
+   * @param entityManager EntityManager con el que se ejecutan las consultas.
+   * @param entityClass Clase de la entidad.
+   * @param dtoClass Clase del DTO cuyos atributos determinan las columnas seleccionadas.
+   * @return La proyección.
+   */
+  public static <E> EntityProjection<E> of(
+      EntityManager entityManager, Class<E> entityClass, Class<?> dtoClass) {
+    return of(entityManager, entityClass, dtoClass, Set.of());
+  }
+
+  /**
+   * Crea la proyección de una entidad limitada a los campos del DTO indicados. Las asociaciones que
+   * no contienen ningún campo pedido no se consultan.
+   *
+   * @param entityManager EntityManager con el que se ejecutan las consultas.
+   * @param entityClass Clase de la entidad.
+   * @param dtoClass Clase del DTO cuyos atributos determinan las columnas seleccionadas.
+   * @param fields Campos del DTO normalizados con {@link SparseFieldset#normalize}, o un conjunto
+   *     vacío para todos los atributos del DTO.
+   * @return La proyección.
+   * @throws org.barrikeit.util.exceptions.BadRequestException si algún campo no existe en el DTO.
+   */
+  public static <E> EntityProjection<E> of(
+      EntityManager entityManager, Class<E> entityClass, Class<?> dtoClass, Set<String> fields) {
+    SparseFieldset.validate(dtoClass, fields);
+    EntityType<E> entityType = entityManager.getMetamodel().entity(entityClass);
+    return new EntityProjection<>(
+        entityManager, entityClass, new Node(entityType, dtoClass, fields, "", 0));
+  }
+
+  /**
+   * Obtiene las entidades que cumplen la especificación.
+   *
+   * @param specification Especificación de la búsqueda, puede ser {@code null}.
+   * @param sort Ordenación de los resultados.
+   * @param offset Número de filas que se saltan.
+   * @param limit Número máximo de filas, o un valor negativo para obtenerlas todas.
+   * @return Las entidades, no gestionadas, con los atributos del DTO cargados.
+   */
+  public List<E> getResultList(
+      Specification<E> specification, Sort sort, long offset, int limit) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+    Root<E> from = query.from(entityClass);
+
+    List<Selection<?>> selections = new ArrayList<>();
+    root.select(from, selections);
+    query.multiselect(selections);
+    if (specification != null) {
+      Predicate predicate = specification.toPredicate(from, query, criteriaBuilder);
+      if (predicate != null) {
+        query.where(predicate);
+      }
+    }
+    query.orderBy(QueryUtils.toOrders(sort, from, criteriaBuilder));
+
+    TypedQuery<Tuple> typedQuery =
+        entityManager.createQuery(query).setFirstResult(Math.toIntExact(offset));
+    if (limit >= 0) {
+      typedQuery.setMaxResults(limit);
+    }
+
+    Map<Node, Map<Object, Object>> loaded = new IdentityHashMap<>();
+    List<E> result = new ArrayList<>();
+    for (Tuple tuple : typedQuery.getResultList()) {
+      result.add(entityClass.cast(root.read(tuple, new int[] {0}, loaded)));
+    }
+    loadCollections(loaded);
+    return result;
+  }
+
+  /**
+   * Carga las colecciones de las instancias leídas. Cada colección se obtiene con una consulta por
+   * lote de identificadores, y los elementos leídos pueden a su vez tener colecciones que se cargan
+   * en la siguiente iteración.
+   */
+  private void loadCollections(Map<Node, Map<Object, Object>> loaded) {
+    Map<Node, Map<Object, Object>> pending = loaded;
+    while (!pending.isEmpty()) {
+      Map<Node, Map<Object, Object>> next = new IdentityHashMap<>();
+      for (Map.Entry<Node, Map<Object, Object>> entry : pending.entrySet()) {
+        Node node = entry.getKey();
+        for (Map.Entry<PluralAttribute<?, ?, ?>, Node> collection : node.toMany.entrySet()) {
+          loadCollection(node, collection.getKey(), collection.getValue(), entry.getValue(), next);
+        }
+      }
+      pending = next;
+    }
+  }
+
+  private void loadCollection(
+      Node owner,
+      PluralAttribute<?, ?, ?> attribute,
+      Node element,
+      Map<Object, Object> owners,
+      Map<Node, Map<Object, Object>> loaded) {
+    Field field = getField(attribute);
+    for (Object instance : owners.values()) {
+      setValue(field, instance, newCollection(attribute));
+    }
+
+    List<Object> ids = new ArrayList<>(owners.keySet());
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    for (int start = 0; start < ids.size(); start += UtilConstants.PROJECTION_BATCH_SIZE) {
+      List<Object> batch =
+          ids.subList(start, Math.min(start + UtilConstants.PROJECTION_BATCH_SIZE, ids.size()));
+      CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+      Root<?> from = query.from(owner.type.getJavaType());
+      Join<?, ?> join = from.join(attribute.getName(), JoinType.INNER);
+
+      List<Selection<?>> selections = new ArrayList<>();
+      selections.add(from.get(owner.id.getName()));
+      element.select(join, selections);
+      query.multiselect(selections).where(from.get(owner.id.getName()).in(batch));
+
+      for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+        Object value = element.read(tuple, new int[] {1}, loaded);
+        @SuppressWarnings("unchecked")
+        Collection<Object> collection =
+            (Collection<Object>) getValue(field, owners.get(tuple.get(0)));
+        collection.add(value);
+      }
+    }
+  }
+
+  private static Collection<Object> newCollection(PluralAttribute<?, ?, ?> attribute) {
+    return attribute.getCollectionType() == PluralAttribute.CollectionType.SET
+        ? new LinkedHashSet<>()
+        : new ArrayList<>();
+  }
+
+  private static Field getField(Attribute<?, ?> attribute) {
+    if (!(attribute.getJavaMember() instanceof Field field)) {
+      throw new IllegalStateException(
+          "El atributo " + attribute.getName() + " no se mapea con acceso por campo.");
+    }
+    field.setAccessible(true);
+    return field;
+  }
+
+  private static Object getValue(Field field, Object instance) {
+    try {
+      return field.get(instance);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void setValue(Field field, Object instance, Object value) {
+    if (value == null && field.getType().isPrimitive()) {
+      return;
+    }
+    try {
+      field.set(instance, value);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Nodo del árbol de la proyección: atributos de una entidad que se seleccionan, y nodos de sus
+   * asociaciones a uno y a muchos.
+   */
+  private static final class Node {
+    private final EntityType<?> type;
+    private final SingularAttribute<?, ?> id;
+    private final List<SingularAttribute<?, ?>> basics = new ArrayList<>();
+    private final Map<SingularAttribute<?, ?>, Node> toOne = new LinkedHashMap<>();
+    private final Map<PluralAttribute<?, ?, ?>, Node> toMany = new LinkedHashMap<>();
+
+    private Node(
+        EntityType<?> type, Class<?> dtoClass, Set<String> fields, String prefix, int depth) {
+      this.type = type;
+      this.id =
+          type.getSingularAttributes().stream()
+              .filter(SingularAttribute::isId)
+              .findFirst()
+              .orElseThrow(() -> new IllegalStateException(type.getName() + " no tiene id."));
+
+      Map<String, Field> dtoFields =
+          ReflectionUtil.getFields(dtoClass).stream()
+              .collect(Collectors.toMap(Field::getName, Function.identity(), (a, b) -> a));
+      for (Attribute<?, ?> attribute : type.getAttributes()) {
+        Field dtoField = dtoFields.get(attribute.getName());
+        if (dtoField == null
+            || attribute == id
+            || !SparseFieldset.isRequired(fields, prefix + attribute.getName())) {
+          continue;
+        }
+        String path = prefix + attribute.getName() + JoinRegistry.PATH_SEPARATOR;
+        switch (attribute.getPersistentAttributeType()) {
+          case BASIC -> basics.add((SingularAttribute<?, ?>) attribute);
+          case MANY_TO_ONE, ONE_TO_ONE -> {
+            SingularAttribute<?, ?> singular = (SingularAttribute<?, ?>) attribute;
+            if (depth < UtilConstants.PROJECTION_MAX_DEPTH
+                && GenericDto.class.isAssignableFrom(dtoField.getType())
+                && singular.getType() instanceof EntityType<?> target) {
+              toOne.put(singular, new Node(target, dtoField.getType(), fields, path, depth + 1));
+            }
+          }
+          case MANY_TO_MANY, ONE_TO_MANY -> {
+            PluralAttribute<?, ?, ?> plural = (PluralAttribute<?, ?, ?>) attribute;
+            Class<?> elementDto = getElementType(dtoField);
+            if (depth < UtilConstants.PROJECTION_MAX_DEPTH
+                && elementDto != null
+                && GenericDto.class.isAssignableFrom(elementDto)
+                && plural.getElementType() instanceof EntityType<?> target) {
+              toMany.put(plural, new Node(target, elementDto, fields, path, depth + 1));
+            }
+          }
+          default -> {
+            // Los atributos embebidos y las colecciones de elementos no se proyectan
+          }
+        }
+      }
+    }
+
+    private static Class<?> getElementType(Field field) {
+      Type genericType = field.getGenericType();
+      if (genericType instanceof ParameterizedType parameterized
+          && parameterized.getActualTypeArguments()[0] instanceof Class<?> elementClass) {
+        return elementClass;
+      }
+      return null;
+    }
+
+    /** Añade las columnas del nodo: identificador, atributos básicos y asociaciones a uno. */
+    private void select(From<?, ?> from, List<Selection<?>> selections) {
+      selections.add(from.get(id.getName()));
+      basics.forEach(attribute -> selections.add(from.get(attribute.getName())));
+      toOne.forEach(
+          (attribute, node) ->
+              node.select(from.join(attribute.getName(), JoinType.LEFT), selections));
+    }
+
+    /**
+     * Construye la instancia del nodo a partir de las columnas de la fila, en el mismo orden en que
+     * se seleccionaron. Devuelve {@code null} si el identificador es nulo (asociación vacía).
+     */
+    private Object read(Tuple tuple, int[] position, Map<Node, Map<Object, Object>> loaded) {
+      Object idValue = tuple.get(position[0]++);
+      Object instance = idValue != null ? ReflectionUtil.newInstance(type.getJavaType()) : null;
+      if (idValue != null && instance == null) {
+        throw new IllegalStateException(type.getName() + " no tiene constructor sin argumentos.");
+      }
+      if (instance != null) {
+        setValue(getField(id), instance, idValue);
+      }
+      for (SingularAttribute<?, ?> attribute : basics) {
+        Object value = tuple.get(position[0]++);
+        if (instance != null) {
+          setValue(getField(attribute), instance, value);
+        }
+      }
+      for (Map.Entry<SingularAttribute<?, ?>, Node> entry : toOne.entrySet()) {
+        Object value = entry.getValue().read(tuple, position, loaded);
+        if (instance != null) {
+          setValue(getField(entry.getKey()), instance, value);
+        }
+      }
+      if (instance == null) {
+        return null;
+      }
+      // Se reutiliza la instancia ya leída con el mismo identificador
+      Map<Object, Object> instances = loaded.computeIfAbsent(this, k -> new LinkedHashMap<>());
+      Object existing = instances.putIfAbsent(idValue, instance);
+      return existing != null ? existing : instance;
+    }
+  }
+}
@@ -1,16 +1,21 @@
 package org.barrikeit.util.filter;
 
 import jakarta.persistence.criteria.*;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.lang.reflect.Array;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import org.barrikeit.util.TimeUtil;
+import org.barrikeit.util.constants.UtilConstants;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.sqm.NodeBuilder;
+import org.hibernate.query.sqm.tree.domain.SqmPath;
 import org.springframework.data.jpa.domain.Specification;
 
 @Builder
@@ -19,121 +24,313 @@ import org.springframework.data.jpa.domain.Specification;
 @AllArgsConstructor
 public class FilterSpecification<E> implements Specification<E> {
 
+  private static final char LIKE_ESCAPE = '\\';
+
   private final SearchCriteria searchCriteria;
 
-  private Map<SearchOperation, BiFunction<Root<E>, CriteriaBuilder, Predicate>>
+  private Map<SearchOperation, BiFunction<From<?, ?>, CriteriaBuilder, Predicate>>
       operationPredicateMap = new HashMap<>();
 
+  /** Valor del criterio convertido a cada tipo de atributo sobre el que se ha aplicado. */
+  private final transient Map<Class<?>, Object> typedValues = new ConcurrentHashMap<>();
+
   public FilterSpecification(SearchCriteria searchCriteria) {
     this.searchCriteria = searchCriteria;
     operationPredicateMap.put(SearchOperation.EQUALITY, this::equalityPredicate);
     operationPredicateMap.put(SearchOperation.NEGATION, this::negationPredicate);
     operationPredicateMap.put(SearchOperation.GREATER_THAN, this::greaterThanPredicate);
     operationPredicateMap.put(SearchOperation.LESS_THAN, this::lessThanPredicate);
-    operationPredicateMap.put(SearchOperation.LIKE, this::equalityPredicate);
+    operationPredicateMap.put(SearchOperation.LIKE, this::likePredicate);
+    operationPredicateMap.put(SearchOperation.STARTS_WITH, this::startsWithPredicate);
+    operationPredicateMap.put(SearchOperation.ENDS_WITH, this::endsWithPredicate);
+    operationPredicateMap.put(SearchOperation.CONTAINS, this::containsPredicate);
     operationPredicateMap.put(SearchOperation.IS_NULL, this::isNullPredicate);
     operationPredicateMap.put(SearchOperation.IS_NOT_NULL, this::isNotNullPredicate);
+    operationPredicateMap.put(SearchOperation.IN, this::inPredicate);
+    operationPredicateMap.put(SearchOperation.BETWEEN, this::betweenPredicate);
   }
 
+  /**
+   * Crea el predicado del criterio. Las claves con puntos ({@code location.country}) se resuelven
+   * con {@link JoinRegistry}: si la ruta atraviesa una asociación a muchos se filtra con una
+   * subconsulta {@code EXISTS} correlacionada para no multiplicar las filas; en otro caso, o si no
+   * hay consulta, se reutiliza un único join por ruta.
+   */
   @Override
   public Predicate toPredicate(
       Root<E> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
     if (null == this.searchCriteria) {
       return null;
     }
+    String key = this.searchCriteria.getKey();
+    int separator = key.lastIndexOf(JoinRegistry.PATH_SEPARATOR);
+    if (separator < 0) {
+      return applyOperation(root, criteriaBuilder);
+    }
+
+    String joinPath = key.substring(0, separator);
+    // Sin consulta (subconsultas de identificadores de las operaciones masivas) las filas repetidas
+    // por el join a la colección no afectan al resultado
+    if (query == null || !JoinRegistry.isToMany(root, joinPath)) {
+      return applyOperation(JoinRegistry.join(root, joinPath, JoinType.LEFT), criteriaBuilder);
+    }
+    Subquery<Integer> subquery = query.subquery(Integer.class);
+    Root<E> correlated = subquery.correlate(root);
+    From<?, ?> from = JoinRegistry.join(correlated, joinPath, JoinType.INNER);
+    return criteriaBuilder.exists(
+        subquery
+            .select(criteriaBuilder.literal(1))
+            .where(applyOperation(from, criteriaBuilder)));
+  }
+
+  private Predicate applyOperation(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
     return operationPredicateMap
-        .getOrDefault(searchCriteria.getOperation(), (r, c) -> null)
-        .apply(root, criteriaBuilder);
+        .getOrDefault(searchCriteria.getOperation(), (f, c) -> null)
+        .apply(from, criteriaBuilder);
   }
 
-  private Predicate equalityPredicate(Root<E> root, CriteriaBuilder criteriaBuilder) {
-    if (root.get(this.searchCriteria.getKey()).getJavaType() == String.class) {
-      Expression<String> fieldExpr =
-          criteriaBuilder.lower(
-              criteriaBuilder.function(
-                  "unaccent", String.class, root.get(searchCriteria.getKey())));
+  /** Nombre del atributo sobre el que se aplica el criterio, sin la ruta de asociaciones. */
+  private String getAttribute() {
+    String key = this.searchCriteria.getKey();
+    return key.substring(key.lastIndexOf(JoinRegistry.PATH_SEPARATOR) + 1);
+  }
 
-      Expression<String> valueExpr =
-          criteriaBuilder.function(
-              "unaccent",
-              String.class,
-              criteriaBuilder.literal(
-                  "%" + ((String) searchCriteria.getValue()).toLowerCase() + "%"));
+  private Predicate equalityPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    Path<?> path = from.get(getAttribute());
+    if (getJavaType(path) == String.class) {
+      return criteriaBuilder.like(
+          unaccentField(path, criteriaBuilder),
+          unaccentValue(criteriaBuilder, "%" + getStringValue().toLowerCase() + "%"));
+    } else {
+      return criteriaBuilder.equal(path, getTypedValue(path));
+    }
+  }
 
-      return criteriaBuilder.like(fieldExpr, valueExpr);
+  private Predicate negationPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    Path<?> path = from.get(getAttribute());
+    if (getJavaType(path) == String.class) {
+      return criteriaBuilder.notLike(
+          unaccentField(path, criteriaBuilder),
+          unaccentValue(criteriaBuilder, "%" + getStringValue().toLowerCase() + "%"));
     } else {
-      return criteriaBuilder.equal(
-          root.get(this.searchCriteria.getKey()), this.searchCriteria.getValue());
+      return criteriaBuilder.notEqual(path, getTypedValue(path));
     }
   }
 
-  private Predicate negationPredicate(Root<E> root, CriteriaBuilder criteriaBuilder) {
-    if (root.get(this.searchCriteria.getKey()).getJavaType() == String.class) {
-      Expression<String> fieldExpr =
-          criteriaBuilder.lower(
-              criteriaBuilder.function(
-                  "unaccent", String.class, root.get(searchCriteria.getKey())));
+  /**
+   * Expresión {@code lower(f_unaccent(campo))} sobre la que se definen los índices de trigramas,
+   * por lo que debe coincidir exactamente con la de la migración para que el índice se utilice.
+   */
+  private Expression<String> unaccentField(Path<?> path, CriteriaBuilder criteriaBuilder) {
+    return criteriaBuilder.lower(
+        criteriaBuilder.function(UtilConstants.FUNCION_UNACCENT, String.class, path));
+  }
 
-      Expression<String> valueExpr =
-          criteriaBuilder.function(
-              "unaccent",
-              String.class,
-              criteriaBuilder.literal(
-                  "%" + ((String) searchCriteria.getValue()).toLowerCase() + "%"));
+  /**
+   * Expresión {@code f_unaccent(?)} para comparar con los campos sin acentos. El patrón se envía
+   * como parámetro para que todos los valores compartan la misma sentencia SQL.
+   */
+  private Expression<String> unaccentValue(CriteriaBuilder criteriaBuilder, String pattern) {
+    return criteriaBuilder.function(
+        UtilConstants.FUNCION_UNACCENT, String.class, parameter(criteriaBuilder, pattern));
+  }
 
-      return criteriaBuilder.notLike(fieldExpr, valueExpr);
-    } else {
-      return criteriaBuilder.notEqual(
-          root.get(this.searchCriteria.getKey()), this.searchCriteria.getValue());
+  /**
+   * Valor enviado como parámetro de la consulta. Con Hibernate se usa {@code value()}, ya que
+   * {@code literal()} escribe el valor dentro de la sentencia SQL.
+   */
+  private static <T> Expression<T> parameter(CriteriaBuilder criteriaBuilder, T value) {
+    return criteriaBuilder instanceof HibernateCriteriaBuilder hibernateCriteriaBuilder
+        ? hibernateCriteriaBuilder.value(value)
+        : criteriaBuilder.literal(value);
+  }
+
+  /**
+   * Búsqueda con patrón, donde el carácter {@code *} equivale a cualquier secuencia de caracteres.
+   * Si el patrón no empieza por {@code *} la consulta puede resolverse con los índices de prefijo.
+   */
+  private Predicate likePredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    String pattern =
+        escapeLike(getStringValue().toLowerCase()).replace(SearchOperation.ZERO_OR_MORE_REGEX, "%");
+    return textLike(from, criteriaBuilder, pattern);
+  }
+
+  /**
+   * Búsqueda por prefijo: {@code lower(f_unaccent(campo)) LIKE 'valor%'}, que se resuelve como un
+   * recorrido por rango de los índices {@code text_pattern_ops}.
+   */
+  private Predicate startsWithPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    return textLike(from, criteriaBuilder, escapeLike(getStringValue().toLowerCase()) + "%");
+  }
+
+  /**
+   * Búsqueda por sufijo. Se invierten tanto el campo como el valor para convertirla en una búsqueda
+   * por prefijo sobre los índices de la expresión {@code f_unaccent(reverse(lower(campo)))}.
+   */
+  private Predicate endsWithPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    Path<?> path = from.get(getAttribute());
+    if (getJavaType(path) != String.class) {
+      return criteriaBuilder.like(
+          path.as(String.class), "%" + escapeLike(getStringValue()), LIKE_ESCAPE);
     }
+    Expression<String> reversedField =
+        criteriaBuilder.function(
+            UtilConstants.FUNCION_UNACCENT,
+            String.class,
+            criteriaBuilder.function(
+                "reverse", String.class, criteriaBuilder.lower(path.as(String.class))));
+    String reversedValue = new StringBuilder(getStringValue().toLowerCase()).reverse().toString();
+    return criteriaBuilder.like(
+        reversedField,
+        unaccentValue(criteriaBuilder, escapeLike(reversedValue) + "%"),
+        LIKE_ESCAPE);
   }
 
-  private Predicate greaterThanPredicate(Root<E> root, CriteriaBuilder criteriaBuilder) {
-    if (root.get(this.searchCriteria.getKey()).getJavaType() == LocalDate.class) {
-      LocalDate localDate =
-          searchCriteria.getValue() instanceof String
-              ? TimeUtil.convertLocalDate((String) searchCriteria.getValue())
-              : (LocalDate) searchCriteria.getValue();
-      return criteriaBuilder.greaterThanOrEqualTo(
-          root.get(this.searchCriteria.getKey()), localDate);
-    } else if (root.get(this.searchCriteria.getKey()).getJavaType() == LocalDateTime.class) {
-      LocalDateTime localDateTime =
-          searchCriteria.getValue() instanceof String
-              ? TimeUtil.convertLocalDateTime((String) searchCriteria.getValue())
-              : (LocalDateTime) searchCriteria.getValue();
-      return criteriaBuilder.greaterThanOrEqualTo(
-          root.get(this.searchCriteria.getKey()), localDateTime);
-    } else {
-      return criteriaBuilder.greaterThanOrEqualTo(
-          root.get(this.searchCriteria.getKey()), searchCriteria.getValue().toString());
+  /** Búsqueda de subcadena, que se resuelve con los índices de trigramas. */
+  private Predicate containsPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    return textLike(from, criteriaBuilder, "%" + escapeLike(getStringValue().toLowerCase()) + "%");
+  }
+
+  /**
+   * Compara el campo con un patrón {@code LIKE} ya escapado. Los campos de texto se comparan sin
+   * acentos ni mayúsculas y el resto se convierten a texto.
+   */
+  private Predicate textLike(From<?, ?> from, CriteriaBuilder criteriaBuilder, String pattern) {
+    Path<?> path = from.get(getAttribute());
+    if (getJavaType(path) != String.class) {
+      return criteriaBuilder.like(path.as(String.class), pattern, LIKE_ESCAPE);
     }
+    return criteriaBuilder.like(
+        unaccentField(path, criteriaBuilder),
+        unaccentValue(criteriaBuilder, pattern),
+        LIKE_ESCAPE);
   }
 
-  private Predicate lessThanPredicate(Root<E> root, CriteriaBuilder criteriaBuilder) {
-    if (root.get(this.searchCriteria.getKey()).getJavaType() == LocalDate.class) {
-      LocalDate localDate =
-          searchCriteria.getValue() instanceof String
-              ? TimeUtil.convertLocalDate((String) searchCriteria.getValue())
-              : (LocalDate) searchCriteria.getValue();
-      return criteriaBuilder.lessThanOrEqualTo(root.get(this.searchCriteria.getKey()), localDate);
-    } else if (root.get(this.searchCriteria.getKey()).getJavaType() == LocalDateTime.class) {
-      LocalDateTime localDateTime =
-          searchCriteria.getValue() instanceof String
-              ? TimeUtil.convertLocalDateTime((String) searchCriteria.getValue())
-              : (LocalDateTime) searchCriteria.getValue();
-      return criteriaBuilder.lessThanOrEqualTo(
-          root.get(this.searchCriteria.getKey()), localDateTime);
-    } else {
+  private String getStringValue() {
+    return this.searchCriteria.getValue().toString();
+  }
+
+  /** Escapa los caracteres comodín de {@code LIKE} para que se busquen de forma literal. */
+  private static String escapeLike(String value) {
+    StringBuilder escaped = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+        escaped.append(LIKE_ESCAPE);
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+
+  /**
+   * Valor del criterio convertido al tipo Java del atributo. La conversión se hace una única vez
+   * por tipo, ya que la especificación se reutiliza mientras su plan de búsqueda esté en caché.
+   */
+  private Object getTypedValue(Path<?> path) {
+    return typedValues.computeIfAbsent(getJavaType(path), this::convertValue);
+  }
+
+  private Object convertValue(Class<?> type) {
+    String key = searchCriteria.getKey();
+    Object value = searchCriteria.getValue();
+    if (value instanceof Collection<?> values) {
+      return SearchValueConverter.convertAll(key, values, type);
+    } else if (value instanceof SearchRange range) {
+      return SearchValueConverter.convertRange(key, range, type);
+    }
+    return SearchValueConverter.convert(key, value, type);
+  }
+
+  /**
+   * Mayor o igual que el valor, comparando con el tipo del atributo para que los números, fechas e
+   * identificadores se comparen por su valor y no como texto.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Predicate greaterThanPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    Path path = from.get(getAttribute());
+    return criteriaBuilder.greaterThanOrEqualTo(path, (Comparable) getTypedValue(path));
+  }
+
+  /** Menor o igual que el valor, comparando con el tipo del atributo. */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Predicate lessThanPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    Path path = from.get(getAttribute());
+    return criteriaBuilder.lessThanOrEqualTo(path, (Comparable) getTypedValue(path));
+  }
+
+  /**
+   * Rango inclusivo de valores, que se compila a un único {@code BETWEEN} sobre el atributo con
+   * el tipo de la columna para que pueda resolverse con un recorrido por rango del índice. Si falta
+   * uno de los extremos se compara solo con el otro.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Predicate betweenPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    Path path = from.get(getAttribute());
+    SearchRange range = (SearchRange) getTypedValue(path);
+    if (range.getFrom() == null) {
       return criteriaBuilder.lessThanOrEqualTo(
-          root.get(this.searchCriteria.getKey()), this.searchCriteria.getValue().toString());
+          path, parameter(criteriaBuilder, (Comparable) range.getTo()));
+    } else if (range.getTo() == null) {
+      return criteriaBuilder.greaterThanOrEqualTo(
+          path, parameter(criteriaBuilder, (Comparable) range.getFrom()));
+    }
+    return criteriaBuilder.between(
+        path,
+        parameter(criteriaBuilder, (Comparable) range.getFrom()),
+        parameter(criteriaBuilder, (Comparable) range.getTo()));
+  }
+
+  /**
+   * Pertenencia a una lista de valores. En PostgreSQL se compila a {@code campo = any(?)} con un
+   * único parámetro de tipo array, por lo que todas las listas comparten la misma sentencia. En el
+   * resto de bases de datos se usa un {@code IN} cuya lista se rellena repitiendo el último valor
+   * hasta la siguiente potencia de dos, de modo que solo hay una sentencia por cada potencia.
+   */
+  private Predicate inPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    Path<Object> path = from.get(getAttribute());
+    Object values = getTypedValue(path);
+    int length = Array.getLength(values);
+    if (length == 0) {
+      return criteriaBuilder.disjunction();
+    }
+    Class<?> type = getJavaType(path);
+    if (isPostgreSql(criteriaBuilder) && !type.isEnum()) {
+      return criteriaBuilder.equal(
+          path,
+          criteriaBuilder.function(
+              SearchFunctionContributor.ARRAY_ANY, type, parameter(criteriaBuilder, values)));
+    }
+    CriteriaBuilder.In<Object> in = criteriaBuilder.in(path);
+    int padded = Integer.bitCount(length) == 1 ? length : Integer.highestOneBit(length) << 1;
+    for (int i = 0; i < padded; i++) {
+      in.value(parameter(criteriaBuilder, Array.get(values, Math.min(i, length - 1))));
     }
+    return in;
+  }
+
+  /**
+   * Tipo Java del atributo. En los atributos genéricos de las superclases (el {@code id} o el
+   * {@code code}) {@code getJavaType()} devuelve el tipo borrado, por lo que con Hibernate se usa
+   * el tipo resuelto para la entidad concreta.
+   */
+  private static Class<?> getJavaType(Path<?> path) {
+    if (path instanceof SqmPath<?> sqmPath && sqmPath.getExpressible() != null) {
+      return sqmPath.getExpressible().getExpressibleJavaType().getJavaTypeClass();
+    }
+    return path.getJavaType();
+  }
+
+  private static boolean isPostgreSql(CriteriaBuilder criteriaBuilder) {
+    return criteriaBuilder instanceof NodeBuilder nodeBuilder
+        && nodeBuilder.getSessionFactory().getJdbcServices().getDialect()
+            instanceof PostgreSQLDialect;
   }
 
-  private Predicate isNullPredicate(Root<E> root, CriteriaBuilder criteriaBuilder) {
-    return criteriaBuilder.isNull(root.get(this.searchCriteria.getKey()));
+  private Predicate isNullPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    return criteriaBuilder.isNull(from.get(getAttribute()));
   }
 
-  private Predicate isNotNullPredicate(Root<E> root, CriteriaBuilder criteriaBuilder) {
-    return criteriaBuilder.isNotNull(root.get(this.searchCriteria.getKey()));
+  private Predicate isNotNullPredicate(From<?, ?> from, CriteriaBuilder criteriaBuilder) {
+    return criteriaBuilder.isNotNull(from.get(getAttribute()));
   }
 }
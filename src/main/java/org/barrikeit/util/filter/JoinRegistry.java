@@ -0,0 +1,100 @@
+package org.barrikeit.util.filter;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.Bindable;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import org.barrikeit.util.exceptions.BadRequestException;
+
+/**
+ * Resuelve las rutas con puntos de los criterios de búsqueda ({@code roles.modules.code}) sobre una
+ * consulta de Criteria.
+ *
+ * <p>Los joins ya creados en la consulta actúan como registro: antes de crear un join se busca uno
+ * existente con el mismo atributo y tipo, de modo que varios criterios sobre la misma ruta
+ * comparten el mismo alias sea cual sea su profundidad.
+ */
+public class JoinRegistry {
+
+  public static final String PATH_SEPARATOR = ".";
+
+  private JoinRegistry() {
+    throw new IllegalStateException("JoinRegistry class");
+  }
+
+  /**
+   * Devuelve el join de la ruta indicada, reutilizando los joins existentes y creando solo los que
+   * falten.
+   *
+   * @param from Origen de la ruta.
+   * @param path Ruta de asociaciones separada por puntos.
+   * @param joinType Tipo de join de los joins que haya que crear.
+   * @return El join del último segmento de la ruta.
+   */
+  public static From<?, ?> join(From<?, ?> from, String path, JoinType joinType) {
+    From<?, ?> current = from;
+    for (String attribute : path.split("\\" + PATH_SEPARATOR)) {
+      current = join(current, attribute, joinType, path);
+    }
+    return current;
+  }
+
+  private static From<?, ?> join(
+      From<?, ?> from, String attribute, JoinType joinType, String path) {
+    for (Join<?, ?> join : from.getJoins()) {
+      if (join.getAttribute().getName().equals(attribute) && join.getJoinType() == joinType) {
+        return join;
+      }
+    }
+    try {
+      return from.join(attribute, joinType);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("{0} no es un filtro válido para la búsqueda.", path);
+    }
+  }
+
+  /**
+   * Indica si alguna de las asociaciones de la ruta es a muchos, en cuyo caso un join multiplicaría
+   * las filas del origen.
+   *
+   * @param from Origen de la ruta.
+   * @param path Ruta de asociaciones separada por puntos.
+   * @return {@code true} si la ruta atraviesa una colección.
+   */
+  public static boolean isToMany(From<?, ?> from, String path) {
+    Type<?> type = getType(from.getModel());
+    for (String name : path.split("\\" + PATH_SEPARATOR)) {
+      if (!(type instanceof ManagedType<?> managedType)) {
+        throw new BadRequestException("{0} no es un filtro válido para la búsqueda.", path);
+      }
+      Attribute<?, ?> attribute;
+      try {
+        attribute = managedType.getAttribute(name);
+      } catch (IllegalArgumentException e) {
+        throw new BadRequestException("{0} no es un filtro válido para la búsqueda.", path);
+      }
+      if (attribute.isCollection()) {
+        return true;
+      }
+      type = ((SingularAttribute<?, ?>) attribute).getType();
+    }
+    return false;
+  }
+
+  /** Tipo gestionado de un origen: la entidad de una raíz o el destino de un join. */
+  private static Type<?> getType(Bindable<?> model) {
+    if (model instanceof Type<?> type) {
+      return type;
+    } else if (model instanceof SingularAttribute<?, ?> singular) {
+      return singular.getType();
+    } else if (model instanceof PluralAttribute<?, ?, ?> plural) {
+      return plural.getElementType();
+    }
+    return null;
+  }
+}
@@ -0,0 +1,79 @@
+package org.barrikeit.util.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.barrikeit.util.exceptions.BadRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Codifica y decodifica los cursores opacos de la paginación por clave (keyset).
+ *
+ * <p>Un cursor contiene los valores de las claves de ordenación de la última fila devuelta, además
+ * del identificador que se usa como desempate, serializados como JSON y codificados en Base64 URL.
+ * Al decodificarlo cada valor se convierte al tipo del atributo correspondiente de la entidad.
+ */
+public class KeysetCursor {
+
+  private static final ObjectMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+  private KeysetCursor() {
+    throw new IllegalStateException("KeysetCursor class");
+  }
+
+  /**
+   * Codifica una posición de desplazamiento por clave como un cursor opaco.
+   *
+   * @param position Posición con los valores de las claves de la última fila.
+   * @return El cursor codificado.
+   */
+  public static String encode(KeysetScrollPosition position) {
+    try {
+      byte[] json = MAPPER.writeValueAsBytes(position.getKeys());
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("No se ha podido codificar el cursor.", e);
+    }
+  }
+
+  /**
+   * Decodifica un cursor opaco. Un cursor vacío representa el inicio del desplazamiento.
+   *
+   * @param cursor Cursor recibido del cliente.
+   * @param typeResolver Función que devuelve el tipo Java de cada clave de ordenación.
+   * @return La posición de desplazamiento con los valores ya tipados.
+   * @throws BadRequestException si el cursor no tiene un formato válido.
+   */
+  public static KeysetScrollPosition decode(
+      String cursor, Function<String, Class<?>> typeResolver) {
+    if (ObjectUtils.isEmpty(cursor)) {
+      return ScrollPosition.keyset();
+    }
+    try {
+      JsonNode node = MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+      if (node == null || !node.isObject()) {
+        throw new BadRequestException("{0} no es un cursor válido.", cursor);
+      }
+      Map<String, Object> keys = new LinkedHashMap<>();
+      Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        keys.put(
+            field.getKey(),
+            MAPPER.treeToValue(field.getValue(), typeResolver.apply(field.getKey())));
+      }
+      return ScrollPosition.forward(keys);
+    } catch (IllegalArgumentException | IOException e) {
+      throw new BadRequestException("{0} no es un cursor válido.", cursor);
+    }
+  }
+}
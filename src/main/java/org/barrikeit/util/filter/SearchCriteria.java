@@ -2,8 +2,8 @@ package org.barrikeit.util.filter;
 
 import java.io.Serializable;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.Setter;
 import org.springframework.data.jpa.domain.Specification;
 
 /**
@@ -13,24 +13,30 @@ import org.springframework.data.jpa.domain.Specification;
  * que, menor que, etc.) y un valor (el valor que se va a comparar con el valor del campo). También
  * puede contener una especificación, que es una especificación de JPA que se puede utilizar para
  * realizar consultas más complejas.
+ *
+ * <p>Es inmutable, ya que los criterios de los planes de búsqueda cacheados se comparten entre
+ * peticiones. Para cambiar un criterio se sustituye por una copia creada con {@link #toBuilder()}.
+ * Dos criterios son iguales si lo son su clave, su operación, su valor y su especificación, por lo
+ * que los criterios efectivos de una búsqueda pueden formar parte de la clave de las cachés de
+ * resultados. Las especificaciones se comparan por identidad salvo que implementen {@code equals}.
  */
-@Builder
+@Builder(toBuilder = true)
+@EqualsAndHashCode
 @Getter
-@Setter
 public class SearchCriteria implements Serializable {
 
   /** La clave es el nombre del campo que se va a buscar. */
-  private String key;
+  private final String key;
 
   /** La operación es la operación que se va a realizar, como igual, mayor que, menor que, etc. */
-  private SearchOperation operation;
+  private final SearchOperation operation;
 
   /** El valor es el valor que se va a comparar con el valor del campo. */
-  private Object value;
+  private final Object value;
 
   /**
    * La especificación es una especificación de JPA que se puede utilizar para realizar consultas
    * más complejas.
    */
-  private Specification<?> specification;
+  private final Specification<?> specification;
 }
@@ -0,0 +1,186 @@
+package org.barrikeit.util.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.barrikeit.util.constants.UtilConstants;
+import org.barrikeit.util.filter.SearchPlanCache.Term;
+
+/**
+ * Analizador de las expresiones de búsqueda con precedencia de operadores.
+ *
+ * <p>La gramática reconocida es:
+ *
+ * <pre>
+ *   expresion := conjuncion ( "'" conjuncion )*
+ *   conjuncion := factor ( ";" factor )*
+ *   factor := "(" expresion ")" | criterio
+ *   criterio := clave operador valor
+ * </pre>
+ *
+ * <p>El separador {@code ;} es el AND y tiene más precedencia que el OR ({@code '}), de modo que
+ * {@code a:1'b:2;c:3} equivale a {@code a:1'(b:2;c:3)}.
+ *
+ * <p>Los valores pueden contener los caracteres {@code ' ( )} siempre que no se puedan confundir
+ * con un operador: {@code '} solo es un OR si le sigue un criterio o un paréntesis, {@code (} solo
+ * abre un grupo al comienzo de un factor y {@code )} solo cierra un grupo si no cierra un
+ * paréntesis abierto en el propio valor. Así, {@code surname1:O'Brien} o {@code name:f(x)} se
+ * interpretan como un único criterio. Cuando el carácter sí se pudiera confundir se escribe
+ * precedido de {@code \}, por ejemplo {@code name:it\'s:ok}; {@code \\} representa la propia
+ * barra. Los valores no pueden contener {@code ;}.
+ */
+public class SearchExpressionParser {
+
+  private static final Pattern CRITERIA_PATTERN =
+      Pattern.compile(UtilConstants.EXPRESION_REGULAR_PARAMETROS);
+
+  /** Comienzo de un factor: un paréntesis o la clave y el operador de un criterio. */
+  private static final Pattern FACTOR_START_PATTERN =
+      Pattern.compile(
+          "\\s*(?:\\(|\\w+(?:\\.\\w+)*["
+              + String.join("", SearchOperation.SIMPLE_OPERATION_SET)
+              + "])");
+
+  private static final char ESCAPE = '\\';
+
+  private final List<String> tokens;
+  private int position;
+
+  private SearchExpressionParser(List<String> tokens) {
+    this.tokens = tokens;
+  }
+
+  /**
+   * Analiza una cadena de búsqueda.
+   *
+   * @param search Cadena de búsqueda normalizada.
+   * @return El árbol de la expresión, o {@code null} si la cadena no contiene criterios.
+   * @throws IllegalArgumentException si la cadena no cumple la gramática.
+   */
+  public static SearchNode<Term> parse(String search) {
+    List<String> tokens = tokenize(search);
+    if (tokens.isEmpty()) {
+      return null;
+    }
+    SearchExpressionParser parser = new SearchExpressionParser(tokens);
+    SearchNode<Term> expression = parser.parseOr();
+    if (parser.position < tokens.size()) {
+      throw new IllegalArgumentException("Token inesperado: " + tokens.get(parser.position));
+    }
+    return expression;
+  }
+
+  private static List<String> tokenize(String search) {
+    List<String> tokens = new ArrayList<>();
+    StringBuilder criteria = new StringBuilder();
+    // Grupos abiertos en la expresión y paréntesis abiertos dentro del valor del criterio actual
+    int groups = 0;
+    int nested = 0;
+    for (int i = 0; i < search.length(); i++) {
+      char c = search.charAt(i);
+      if (c == ESCAPE && i + 1 < search.length() && isEscapable(search.charAt(i + 1))) {
+        criteria.append(search.charAt(++i));
+        continue;
+      }
+      String character = String.valueOf(c);
+      boolean operator;
+      if (SearchOperation.LEFT_PARANTHESIS.equals(character)) {
+        operator = criteria.toString().isBlank();
+        if (operator) {
+          groups++;
+        } else {
+          nested++;
+        }
+      } else if (SearchOperation.RIGHT_PARANTHESIS.equals(character)) {
+        operator = nested == 0 && groups > 0;
+        if (operator) {
+          groups--;
+        } else if (nested > 0) {
+          nested--;
+        }
+      } else if (SearchOperation.OR_PREDICATE_FLAG.equals(character)) {
+        operator = FACTOR_START_PATTERN.matcher(search).region(i + 1, search.length()).lookingAt();
+      } else {
+        operator = UtilConstants.SEPARADOR_CAMPOS_BUSQUEDA.equals(character);
+      }
+      if (operator) {
+        addCriteria(tokens, criteria);
+        tokens.add(character);
+        nested = 0;
+      } else {
+        criteria.append(c);
+      }
+    }
+    addCriteria(tokens, criteria);
+    return tokens;
+  }
+
+  private static boolean isEscapable(char c) {
+    String character = String.valueOf(c);
+    return c == ESCAPE
+        || SearchOperation.OR_PREDICATE_FLAG.equals(character)
+        || SearchOperation.LEFT_PARANTHESIS.equals(character)
+        || SearchOperation.RIGHT_PARANTHESIS.equals(character);
+  }
+
+  private static void addCriteria(List<String> tokens, StringBuilder criteria) {
+    String text = criteria.toString().stripLeading();
+    if (!text.isEmpty()) {
+      tokens.add(text);
+    }
+    criteria.setLength(0);
+  }
+
+  private static boolean isOperator(String token) {
+    return UtilConstants.SEPARADOR_CAMPOS_BUSQUEDA.equals(token)
+        || SearchOperation.OR_PREDICATE_FLAG.equals(token)
+        || SearchOperation.LEFT_PARANTHESIS.equals(token)
+        || SearchOperation.RIGHT_PARANTHESIS.equals(token);
+  }
+
+  private SearchNode<Term> parseOr() {
+    List<SearchNode<Term>> nodes = new ArrayList<>();
+    nodes.add(parseAnd());
+    while (accept(SearchOperation.OR_PREDICATE_FLAG)) {
+      nodes.add(parseAnd());
+    }
+    return SearchNode.of(SearchNode.Type.OR, nodes);
+  }
+
+  private SearchNode<Term> parseAnd() {
+    List<SearchNode<Term>> nodes = new ArrayList<>();
+    nodes.add(parseFactor());
+    while (accept(UtilConstants.SEPARADOR_CAMPOS_BUSQUEDA)) {
+      nodes.add(parseFactor());
+    }
+    return SearchNode.of(SearchNode.Type.AND, nodes);
+  }
+
+  private SearchNode<Term> parseFactor() {
+    if (accept(SearchOperation.LEFT_PARANTHESIS)) {
+      SearchNode<Term> expression = parseOr();
+      if (!accept(SearchOperation.RIGHT_PARANTHESIS)) {
+        throw new IllegalArgumentException("Falta el paréntesis de cierre.");
+      }
+      return expression;
+    }
+    if (position >= tokens.size() || isOperator(tokens.get(position))) {
+      throw new IllegalArgumentException("Se esperaba un criterio de búsqueda.");
+    }
+    String criteria = tokens.get(position++);
+    Matcher matcher = CRITERIA_PATTERN.matcher(criteria);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException(criteria + " no es un criterio de búsqueda válido.");
+    }
+    return SearchNode.leaf(new Term(matcher.group(1), matcher.group(2), matcher.group(3)));
+  }
+
+  private boolean accept(String token) {
+    if (position < tokens.size() && tokens.get(position).equals(token)) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,28 @@
+package org.barrikeit.util.filter;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+
+/**
+ * Registra en Hibernate las funciones SQL que utilizan los filtros de búsqueda y que no forman
+ * parte de HQL.
+ *
+ * <ul>
+ *   <li>{@value #ARRAY_ANY}: {@code any(array)}, para comparar un campo con todos los elementos de
+ *       un array enviado como un único parámetro ({@code campo = any(?)}). El nombre {@code any}
+ *       ya está reservado en HQL para la función de agregación {@code bool_or}.
+ * </ul>
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+  public static final String ARRAY_ANY = "array_any";
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    functionContributions
+        .getFunctionRegistry()
+        .patternDescriptorBuilder(ARRAY_ANY, "any(?1)")
+        .setExactArgumentCount(1)
+        .register();
+  }
+}
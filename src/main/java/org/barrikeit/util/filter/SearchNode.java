@@ -0,0 +1,91 @@
+package org.barrikeit.util.filter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * Nodo inmutable del árbol de una expresión de búsqueda. Un nodo es una hoja con un criterio o una
+ * conjunción (AND) o disyunción (OR) de otros nodos.
+ *
+ * @param <T> Tipo del valor de las hojas.
+ */
+@Getter
+public final class SearchNode<T> implements Serializable {
+
+  /** Tipo de nodo. */
+  public enum Type {
+    AND,
+    OR,
+    LEAF
+  }
+
+  private final Type type;
+  private final List<SearchNode<T>> children;
+  private final T value;
+
+  private SearchNode(Type type, List<SearchNode<T>> children, T value) {
+    this.type = type;
+    this.children = children;
+    this.value = value;
+  }
+
+  public static <T> SearchNode<T> leaf(T value) {
+    return new SearchNode<>(Type.LEAF, List.of(), value);
+  }
+
+  /**
+   * Crea una conjunción o disyunción. Si solo hay un hijo se devuelve el propio hijo, y los hijos
+   * del mismo tipo se aplanan en el nodo creado.
+   */
+  public static <T> SearchNode<T> of(Type type, List<SearchNode<T>> children) {
+    if (children.size() == 1) {
+      return children.get(0);
+    }
+    List<SearchNode<T>> flattened = new ArrayList<>();
+    for (SearchNode<T> child : children) {
+      if (child.type == type) {
+        flattened.addAll(child.children);
+      } else {
+        flattened.add(child);
+      }
+    }
+    return new SearchNode<>(type, List.copyOf(flattened), null);
+  }
+
+  public boolean isLeaf() {
+    return type == Type.LEAF;
+  }
+
+  /**
+   * Crea un árbol con la misma estructura transformando el valor de cada hoja. Las hojas se
+   * transforman en el orden en que aparecen en la expresión.
+   */
+  public <R> SearchNode<R> map(Function<? super T, ? extends R> mapper) {
+    if (isLeaf()) {
+      return leaf(mapper.apply(value));
+    }
+    List<SearchNode<R>> mapped = new ArrayList<>();
+    for (SearchNode<T> child : children) {
+      mapped.add(child.map(mapper));
+    }
+    return new SearchNode<>(type, List.copyOf(mapped), null);
+  }
+
+  /** Devuelve los valores de las hojas en el orden en que aparecen en la expresión. */
+  public List<T> getValues() {
+    List<T> values = new ArrayList<>();
+    collectValues(values);
+    return values;
+  }
+
+  private void collectValues(List<T> values) {
+    if (isLeaf()) {
+      values.add(value);
+    } else {
+      children.forEach(child -> child.collectValues(values));
+    }
+  }
+}
@@ -10,14 +10,22 @@ public enum SearchOperation {
   ENDS_WITH,
   CONTAINS,
   IS_NULL,
-  IS_NOT_NULL;
+  IS_NOT_NULL,
+  IN,
+  BETWEEN;
 
-  public static final String[] SIMPLE_OPERATION_SET = {":", "!", ">", "<", "~"};
+  public static final String[] SIMPLE_OPERATION_SET = {":", "!", ">", "<", "~", "@"};
 
   public static final String OR_PREDICATE_FLAG = "'";
 
   public static final String ZERO_OR_MORE_REGEX = "*";
 
+  public static final String RANGE_START = "[";
+
+  public static final String RANGE_SEPARATOR = "..";
+
+  public static final String RANGE_END = "]";
+
   public static final String OR_OPERATOR = "OR";
 
   public static final String AND_OPERATOR = "AND";
@@ -33,6 +41,7 @@ public enum SearchOperation {
       case '>' -> GREATER_THAN;
       case '<' -> LESS_THAN;
       case '~' -> LIKE;
+      case '@' -> IN;
       default -> null;
     };
   }
@@ -0,0 +1,102 @@
+package org.barrikeit.util.filter;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+/**
+ * La clase SearchPlan representa el resultado inmutable y ya validado de interpretar una cadena de
+ * búsqueda para un tipo de filtro concreto. Contiene los criterios de búsqueda obtenidos de la
+ * cadena y la ordenación validada, de forma que una misma combinación de filtro, búsqueda y
+ * ordenación solo se interpreta y valida una vez.
+ *
+ * <p>Los planes se comparten entre peticiones a través de {@link SearchPlanCache}, por lo que solo
+ * contienen lo que depende de la cadena de búsqueda: el filtro personalizado de cada constructor se
+ * aplica en cada petición sobre una copia de sus criterios, que son inmutables.
+ */
+@Getter
+public final class SearchPlan implements Serializable {
+
+  /** Clave que identifica el plan: tipo del constructor de filtros, búsqueda y ordenación. */
+  private final Key key;
+
+  /** Criterios de búsqueda tal y como se han leído de la cadena de búsqueda. */
+  private final List<SearchCriteria> params;
+
+  /**
+   * Criterios de búsqueda que se aplicarán en la consulta, antes de aplicar el filtro
+   * personalizado.
+   */
+  private final List<SearchCriteria> filters;
+
+  /**
+   * Árbol AND/OR de la búsqueda cuyas hojas son los criterios de {@link #filters} leídos de la
+   * cadena, o {@code null} si la búsqueda no contiene criterios.
+   */
+  private final SearchNode<SearchCriteria> expression;
+
+  /** Ordenación validada contra las propiedades ordenables. */
+  private final transient Sort sort;
+
+  public SearchPlan(
+      Key key,
+      List<SearchCriteria> params,
+      List<SearchCriteria> filters,
+      SearchNode<SearchCriteria> expression,
+      Sort sort) {
+    this.key = key;
+    this.params = List.copyOf(params);
+    this.filters = List.copyOf(filters);
+    this.expression = expression;
+    this.sort = sort;
+  }
+
+  /**
+   * Clave de la caché de planes de búsqueda.
+   *
+   * @param type Clase del constructor de filtros que interpreta la búsqueda.
+   * @param search Cadena de búsqueda normalizada.
+   * @param sort Ordenación solicitada.
+   */
+  @Getter
+  public static final class Key implements Serializable {
+    private final Class<?> type;
+    private final String search;
+    private final transient Sort sort;
+
+    public Key(Class<?> type, String search, Sort sort) {
+      this.type = type;
+      this.search = search;
+      this.sort = sort;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key that)) return false;
+      return Objects.equals(type, that.type)
+          && Objects.equals(search, that.search)
+          && Objects.equals(sort, that.sort);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, search, sort);
+    }
+
+    @Override
+    public String toString() {
+      return "SearchPlan.Key{"
+          + "type="
+          + type.getSimpleName()
+          + ", search='"
+          + search
+          + '\''
+          + ", sort="
+          + sort
+          + '}';
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package org.barrikeit.util.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.Getter;
+import org.barrikeit.util.constants.UtilConstants;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Caché LRU de búsquedas interpretadas.
+ *
+ * <p>Mantiene dos niveles:
+ *
+ * <ul>
+ *   <li>El análisis sintáctico de la cadena de búsqueda ({@link ParsedSearch}), que solo depende
+ *       de la cadena normalizada y se comparte entre {@code SearchParamsValidator} y los
+ *       constructores de filtros.
+ *   <li>Los planes de búsqueda validados ({@link SearchPlan}), que dependen además del tipo de
+ *       filtro y de la ordenación solicitada.
+ * </ul>
+ *
+ * <p>Ambos niveles tienen un tamaño máximo y descartan la entrada usada hace más tiempo.
+ */
+public class SearchPlanCache {
+
+  private static final Map<String, ParsedSearch> PARSED =
+      lruMap(UtilConstants.SEARCH_PLAN_CACHE_SIZE);
+  private static final Map<SearchPlan.Key, SearchPlan> PLANS =
+      lruMap(UtilConstants.SEARCH_PLAN_CACHE_SIZE);
+
+  private SearchPlanCache() {
+    throw new IllegalStateException("SearchPlanCache class");
+  }
+
+  /**
+   * Normaliza una cadena de búsqueda eliminando los criterios vacíos y los espacios que preceden a
+   * cada criterio, de forma que búsquedas equivalentes compartan la misma entrada en la caché.
+   *
+   * @param search Cadena de búsqueda recibida.
+   * @return La cadena normalizada, vacía si no hay criterios.
+   */
+  public static String normalize(String search) {
+    if (ObjectUtils.isEmpty(search)) {
+      return "";
+    }
+    List<String> terms = new ArrayList<>();
+    for (String term : search.split(UtilConstants.SEPARADOR_CAMPOS_BUSQUEDA)) {
+      String stripped = term.stripLeading();
+      if (!stripped.isEmpty()) {
+        terms.add(stripped);
+      }
+    }
+    return String.join(UtilConstants.SEPARADOR_CAMPOS_BUSQUEDA, terms);
+  }
+
+  /**
+   * Obtiene el análisis sintáctico de una cadena de búsqueda, interpretándola solo si no se
+   * encuentra ya en la caché.
+   *
+   * @param search Cadena de búsqueda, normalizada o no.
+   * @return El resultado del análisis.
+   */
+  public static ParsedSearch parse(String search) {
+    String normalized = normalize(search);
+    ParsedSearch parsed = PARSED.get(normalized);
+    if (parsed == null) {
+      parsed = doParse(normalized);
+      PARSED.put(normalized, parsed);
+    }
+    return parsed;
+  }
+
+  /**
+   * Obtiene el plan de búsqueda para un tipo de filtro, una búsqueda y una ordenación. Si no se
+   * encuentra en la caché se construye con la función recibida; si la construcción lanza una
+   * excepción no se almacena nada.
+   *
+   * @param type Clase del constructor de filtros.
+   * @param search Cadena de búsqueda.
+   * @param sort Ordenación solicitada.
+   * @param planBuilder Función que construye y valida el plan a partir del análisis sintáctico.
+   * @return El plan de búsqueda validado.
+   */
+  public static SearchPlan getPlan(
+      Class<?> type,
+      String search,
+      Sort sort,
+      Function<SearchPlan.Key, SearchPlan> planBuilder) {
+    SearchPlan.Key key = new SearchPlan.Key(type, normalize(search), sort);
+    SearchPlan plan = PLANS.get(key);
+    if (plan == null) {
+      plan = planBuilder.apply(key);
+      PLANS.put(key, plan);
+    }
+    return plan;
+  }
+
+  /** Vacía ambos niveles de la caché. */
+  public static void clear() {
+    PARSED.clear();
+    PLANS.clear();
+  }
+
+  private static ParsedSearch doParse(String normalized) {
+    try {
+      SearchNode<Term> expression = SearchExpressionParser.parse(normalized);
+      List<Term> terms = expression != null ? List.copyOf(expression.getValues()) : List.of();
+      return new ParsedSearch(normalized, expression, terms, true);
+    } catch (IllegalArgumentException e) {
+      return new ParsedSearch(normalized, null, List.of(), false);
+    }
+  }
+
+  private static <K, V> Map<K, V> lruMap(int maxSize) {
+    return Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+          }
+        });
+  }
+
+  /** Resultado inmutable del análisis sintáctico de una cadena de búsqueda. */
+  @Getter
+  public static final class ParsedSearch {
+    /** Cadena de búsqueda normalizada. */
+    private final String search;
+
+    /** Árbol de la expresión con sus operadores AND/OR, {@code null} si no hay criterios. */
+    private final SearchNode<Term> expression;
+
+    /** Criterios encontrados en la cadena, en orden de aparición. */
+    private final List<Term> terms;
+
+    /** Indica si la cadena cumple la gramática y todos sus criterios tienen el formato correcto. */
+    private final boolean valid;
+
+    private ParsedSearch(
+        String search, SearchNode<Term> expression, List<Term> terms, boolean valid) {
+      this.search = search;
+      this.expression = expression;
+      this.terms = terms;
+      this.valid = valid;
+    }
+  }
+
+  /** Criterio de búsqueda sin interpretar: clave, operador y valor tal y como se recibieron. */
+  @Getter
+  public static final class Term {
+    private final String key;
+    private final String operator;
+    private final String value;
+
+    Term(String key, String operator, String value) {
+      this.key = key;
+      this.operator = operator;
+      this.value = value;
+    }
+  }
+}
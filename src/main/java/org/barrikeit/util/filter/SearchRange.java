@@ -0,0 +1,56 @@
+package org.barrikeit.util.filter;
+
+import java.io.Serializable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Rango de valores de una búsqueda {@code campo:[desde..hasta]}, que se compila a un único {@code
+ * BETWEEN} sobre el atributo. Ambos extremos son inclusivos y cualquiera de ellos puede omitirse
+ * ({@code [desde..]} o {@code [..hasta]}), en cuyo caso su valor es {@code null}.
+ */
+@EqualsAndHashCode
+@Getter
+public final class SearchRange implements Serializable {
+
+  /** Extremo inferior del rango, {@code null} si el rango no tiene límite inferior. */
+  private final Serializable from;
+
+  /** Extremo superior del rango, {@code null} si el rango no tiene límite superior. */
+  private final Serializable to;
+
+  public SearchRange(Serializable from, Serializable to) {
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Interpreta un valor con el formato {@code [desde..hasta]}.
+   *
+   * @param value Valor recibido en la búsqueda.
+   * @return El rango con sus extremos como texto, o {@code null} si el valor no es un rango.
+   */
+  public static SearchRange parse(String value) {
+    if (!value.startsWith(SearchOperation.RANGE_START)
+        || !value.endsWith(SearchOperation.RANGE_END)) {
+      return null;
+    }
+    String content = value.substring(1, value.length() - 1);
+    int separator = content.indexOf(SearchOperation.RANGE_SEPARATOR);
+    if (separator < 0) {
+      return null;
+    }
+    String from = content.substring(0, separator).trim();
+    String to = content.substring(separator + SearchOperation.RANGE_SEPARATOR.length()).trim();
+    return new SearchRange(from.isEmpty() ? null : from, to.isEmpty() ? null : to);
+  }
+
+  @Override
+  public String toString() {
+    return SearchOperation.RANGE_START
+        + (from != null ? from : "")
+        + SearchOperation.RANGE_SEPARATOR
+        + (to != null ? to : "")
+        + SearchOperation.RANGE_END;
+  }
+}
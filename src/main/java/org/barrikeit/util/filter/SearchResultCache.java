@@ -0,0 +1,147 @@
+package org.barrikeit.util.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Registro de las cachés de resultados de búsqueda por tipo de entidad.
+ *
+ * <p>Cada servicio con caché de resultados registra la suya con el tipo de entidad que consulta, y
+ * cualquier escritura de una entidad de ese tipo (ver {@link SearchResultCacheListener}) vacía
+ * todas las cachés registradas para él.
+ *
+ * <p>Cada tipo registrado tiene además una generación que aumenta en cada invalidación. Los
+ * resultados se consultan fuera de la caché y solo se guardan si la generación no ha cambiado
+ * mientras tanto, de modo que una consulta que termina después de una invalidación no guarda los
+ * datos anteriores a ella.
+ */
+public class SearchResultCache {
+
+  private static final Map<Class<?>, List<Cache<?, ?>>> CACHES = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, AtomicLong> GENERATIONS = new ConcurrentHashMap<>();
+
+  /** Recurso de la transacción con los tipos de entidad que se invalidarán al terminar. */
+  private static final Object PENDING_RESOURCE = new Object();
+
+  private SearchResultCache() {
+    throw new IllegalStateException("SearchResultCache class");
+  }
+
+  /**
+   * Registra una caché de resultados de un tipo de entidad.
+   *
+   * @param entityType Tipo de entidad cuyos resultados contiene la caché.
+   * @param cache Caché de resultados.
+   */
+  public static void register(Class<?> entityType, Cache<?, ?> cache) {
+    GENERATIONS.computeIfAbsent(entityType, type -> new AtomicLong());
+    CACHES.computeIfAbsent(entityType, type -> new CopyOnWriteArrayList<>()).add(cache);
+  }
+
+  /**
+   * Obtiene un resultado de la caché o, si no está, lo calcula y lo guarda. La consulta se ejecuta
+   * fuera de la caché y el resultado solo se guarda si no ha habido ninguna invalidación del tipo
+   * de entidad mientras se calculaba.
+   *
+   * @param entityType Tipo de entidad con el que se registró la caché.
+   * @param cache Caché de resultados.
+   * @param key Clave del resultado.
+   * @param loader Consulta que calcula el resultado.
+   * @return El resultado guardado o el recién calculado.
+   */
+  public static <K, V> V get(Class<?> entityType, Cache<K, V> cache, K key, Supplier<V> loader) {
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    AtomicLong generation = GENERATIONS.computeIfAbsent(entityType, type -> new AtomicLong());
+    long loadedAt = generation.get();
+    value = loader.get();
+    if (generation.get() == loadedAt) {
+      cache.asMap().putIfAbsent(key, value);
+      // Una invalidación entre la comprobación y la escritura puede no haber visto la entrada
+      if (generation.get() != loadedAt) {
+        cache.asMap().remove(key, value);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Vacía las cachés de resultados de un tipo de entidad. Si hay una transacción activa se vacían
+   * también tras el commit, para descartar los resultados que otras peticiones hayan guardado con
+   * los datos anteriores mientras la transacción estaba en curso. Cada transacción registra una
+   * única sincronización, con todos los tipos que ha modificado.
+   *
+   * @param entityType Tipo de la entidad modificada.
+   */
+  public static void invalidate(Class<?> entityType) {
+    if (CACHES.isEmpty()) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidateNow(entityType);
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Set<Class<?>> pending =
+        (Set<Class<?>>) TransactionSynchronizationManager.getResource(PENDING_RESOURCE);
+    if (pending == null) {
+      pending = new HashSet<>();
+      TransactionSynchronizationManager.bindResource(PENDING_RESOURCE, pending);
+      TransactionSynchronizationManager.registerSynchronization(new PendingInvalidation(pending));
+    }
+    if (pending.add(entityType)) {
+      invalidateNow(entityType);
+    }
+  }
+
+  private static void invalidateNow(Class<?> entityType) {
+    CACHES.forEach(
+        (type, caches) -> {
+          if (type.isAssignableFrom(entityType)) {
+            GENERATIONS.get(type).incrementAndGet();
+            caches.forEach(Cache::invalidateAll);
+          }
+        });
+  }
+
+  /**
+   * Invalida al terminar la transacción los tipos de entidad que ha modificado. El recurso se
+   * retira mientras la transacción está suspendida, para que las transacciones internas registren
+   * su propia sincronización.
+   */
+  private static final class PendingInvalidation implements TransactionSynchronization {
+
+    private final Set<Class<?>> pending;
+
+    private PendingInvalidation(Set<Class<?>> pending) {
+      this.pending = pending;
+    }
+
+    @Override
+    public void suspend() {
+      TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_RESOURCE);
+    }
+
+    @Override
+    public void resume() {
+      TransactionSynchronizationManager.bindResource(PENDING_RESOURCE, pending);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_RESOURCE);
+      pending.forEach(SearchResultCache::invalidateNow);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package org.barrikeit.util.filter;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+
+/**
+ * Listener JPA que invalida las cachés de resultados de búsqueda del tipo de una entidad cada vez
+ * que se inserta, actualiza o elimina, sea cual sea el servicio que realiza la escritura.
+ */
+public class SearchResultCacheListener {
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void invalidate(Object entity) {
+    SearchResultCache.invalidate(Hibernate.getClass(entity));
+  }
+}
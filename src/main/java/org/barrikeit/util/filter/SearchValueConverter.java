@@ -0,0 +1,170 @@
+package org.barrikeit.util.filter;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import org.barrikeit.util.TimeUtil;
+import org.barrikeit.util.exceptions.BadRequestException;
+import org.barrikeit.util.exceptions.UnExpectedException;
+
+/**
+ * Convierte los valores de los criterios de búsqueda, recibidos como texto, al tipo Java del
+ * atributo sobre el que se aplican, de modo que las comparaciones se hagan con el tipo de la
+ * columna y el valor se envíe como parámetro de la consulta.
+ */
+public class SearchValueConverter {
+
+  /** Último instante de un día con la precisión de microsegundos de las columnas de fecha. */
+  private static final LocalTime END_OF_DAY = LocalTime.MAX.truncatedTo(ChronoUnit.MICROS);
+
+  private SearchValueConverter() {
+    throw new IllegalStateException("SearchValueConverter class");
+  }
+
+  /**
+   * Convierte un valor al tipo indicado.
+   *
+   * @param key Clave del criterio, para el mensaje de error.
+   * @param value Valor recibido.
+   * @param type Tipo Java del atributo.
+   * @return El valor convertido, o el propio valor si el tipo no es concreto o ya es del tipo.
+   * @throws BadRequestException si el valor no tiene el formato del tipo.
+   */
+  public static Object convert(String key, Object value, Class<?> type) {
+    if (value == null || type == null || wrap(type).isInstance(value)) {
+      return value;
+    }
+    String text = value.toString().trim();
+    try {
+      return convert(text, wrap(type));
+    } catch (IllegalArgumentException | UnExpectedException e) {
+      throw new BadRequestException("{0} no es un valor válido para el filtro {1}.", text, key);
+    }
+  }
+
+  /**
+   * Convierte una lista de valores al tipo indicado. Los identificadores numéricos se devuelven
+   * como arrays de primitivos ({@code long[]}, {@code int[]}) para no crear un objeto por valor.
+   *
+   * @param key Clave del criterio, para el mensaje de error.
+   * @param values Valores recibidos.
+   * @param type Tipo Java del atributo.
+   * @return Array con los valores convertidos en el orden recibido.
+   * @throws BadRequestException si algún valor no tiene el formato del tipo.
+   */
+  public static Object convertAll(String key, Collection<?> values, Class<?> type) {
+    Class<?> wrapped = type == null ? String.class : wrap(type);
+    if (wrapped == Long.class) {
+      return values.stream().mapToLong(value -> (Long) convert(key, value, wrapped)).toArray();
+    } else if (wrapped == Integer.class) {
+      return values.stream().mapToInt(value -> (Integer) convert(key, value, wrapped)).toArray();
+    }
+    Object[] converted = values.stream().map(value -> convert(key, value, wrapped)).toArray();
+    // Los tipos no concretos se comparan como texto, igual que en la conversión de un solo valor
+    Class<?> componentType =
+        Arrays.stream(converted).allMatch(String.class::isInstance) ? String.class : wrapped;
+    Object array = Array.newInstance(componentType, converted.length);
+    System.arraycopy(converted, 0, array, 0, converted.length);
+    return array;
+  }
+
+  /**
+   * Convierte los extremos de un rango al tipo indicado. Si el atributo es una fecha y hora y el
+   * extremo superior es solo una fecha, se toma el final de ese día para que el rango lo incluya.
+   *
+   * @param key Clave del criterio, para el mensaje de error.
+   * @param range Rango recibido.
+   * @param type Tipo Java del atributo.
+   * @return El rango con los extremos convertidos.
+   * @throws BadRequestException si algún extremo no tiene el formato del tipo o el extremo
+   *     inferior es mayor que el superior.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static SearchRange convertRange(String key, SearchRange range, Class<?> type) {
+    Object from = convert(key, range.getFrom(), type);
+    Object to = convertUpperBound(key, range.getTo(), type);
+    if (from instanceof Comparable comparable && to != null && comparable.compareTo(to) > 0) {
+      throw new BadRequestException("{0} no es un rango válido para el filtro {1}.", range, key);
+    }
+    return new SearchRange((Serializable) from, (Serializable) to);
+  }
+
+  private static Object convertUpperBound(String key, Object value, Class<?> type) {
+    if (type == LocalDateTime.class && value instanceof String text) {
+      try {
+        return TimeUtil.convertLocalDate(text.trim()).atTime(END_OF_DAY);
+      } catch (IllegalArgumentException e) {
+        // No es solo una fecha: se interpreta como fecha y hora
+      }
+    }
+    return convert(key, value, type);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object convert(String text, Class<?> type) {
+    if (type == String.class) {
+      return text;
+    } else if (type == Long.class) {
+      return Long.valueOf(text);
+    } else if (type == Integer.class) {
+      return Integer.valueOf(text);
+    } else if (type == Short.class) {
+      return Short.valueOf(text);
+    } else if (type == Double.class) {
+      return Double.valueOf(text);
+    } else if (type == Float.class) {
+      return Float.valueOf(text);
+    } else if (type == BigDecimal.class) {
+      return new BigDecimal(text);
+    } else if (type == BigInteger.class) {
+      return new BigInteger(text);
+    } else if (type == Boolean.class) {
+      if (!"true".equalsIgnoreCase(text) && !"false".equalsIgnoreCase(text)) {
+        throw new IllegalArgumentException(text);
+      }
+      return Boolean.valueOf(text);
+    } else if (type == UUID.class) {
+      return UUID.fromString(text);
+    } else if (type == LocalDate.class) {
+      return TimeUtil.convertLocalDate(text);
+    } else if (type == LocalDateTime.class) {
+      return TimeUtil.convertLocalDateTime(text);
+    } else if (type.isEnum()) {
+      for (Object constant : type.getEnumConstants()) {
+        if (((Enum) constant).name().equalsIgnoreCase(text)) {
+          return constant;
+        }
+      }
+      throw new IllegalArgumentException(text);
+    }
+    // Tipos no concretos (por ejemplo, el código genérico de las entidades): se compara como texto
+    return text;
+  }
+
+  private static Class<?> wrap(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return type;
+    } else if (type == long.class) {
+      return Long.class;
+    } else if (type == int.class) {
+      return Integer.class;
+    } else if (type == short.class) {
+      return Short.class;
+    } else if (type == double.class) {
+      return Double.class;
+    } else if (type == float.class) {
+      return Float.class;
+    } else if (type == boolean.class) {
+      return Boolean.class;
+    }
+    return type;
+  }
+}
@@ -0,0 +1,140 @@
+package org.barrikeit.util.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.barrikeit.util.ReflectionUtil;
+import org.barrikeit.util.exceptions.BadRequestException;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Utilidades para los conjuntos de campos dispersos ({@code fields=code,username,location.country})
+ * con los que el cliente indica qué atributos del DTO necesita.
+ *
+ * <p>Un campo selecciona el atributo y todo lo que contiene ({@code location} incluye todos los
+ * atributos de la ubicación), y un campo con puntos selecciona solo ese atributo anidado.
+ */
+public class SparseFieldset {
+
+  private static final String SEPARATOR = ".";
+
+  private SparseFieldset() {
+    throw new IllegalStateException("SparseFieldset class");
+  }
+
+  /**
+   * Normaliza los campos recibidos eliminando espacios y campos vacíos.
+   *
+   * @param fields Campos recibidos, puede ser {@code null}.
+   * @return Conjunto ordenado e inmutable de campos, vacío si no se pide ninguno.
+   */
+  public static Set<String> normalize(Collection<String> fields) {
+    if (ObjectUtils.isEmpty(fields)) {
+      return Set.of();
+    }
+    Set<String> normalized = new TreeSet<>();
+    for (String field : fields) {
+      if (field != null && !field.isBlank()) {
+        normalized.add(field.trim());
+      }
+    }
+    return Set.copyOf(normalized);
+  }
+
+  /**
+   * Comprueba que todos los campos existen en el DTO, recorriendo los DTOs anidados y los
+   * elementos de las colecciones.
+   *
+   * @param dtoClass Clase del DTO.
+   * @param fields Campos normalizados.
+   * @throws BadRequestException si algún campo no existe.
+   */
+  public static void validate(Class<?> dtoClass, Set<String> fields) {
+    for (String path : fields) {
+      Class<?> type = dtoClass;
+      for (String name : path.split("\\" + SEPARATOR)) {
+        Field field = type == null ? null : getField(type, name);
+        if (field == null) {
+          throw new BadRequestException("{0} no es un campo válido.", path);
+        }
+        type = getValueType(field);
+      }
+    }
+  }
+
+  /**
+   * Indica si un atributo debe cargarse: no se han pedido campos, se ha pedido el propio atributo o
+   * uno de sus ancestros, o se ha pedido alguno de sus atributos anidados.
+   *
+   * @param fields Campos normalizados.
+   * @param path Ruta del atributo separada por puntos.
+   * @return {@code true} si el atributo es necesario.
+   */
+  public static boolean isRequired(Set<String> fields, String path) {
+    if (fields.isEmpty()) {
+      return true;
+    }
+    for (String field : fields) {
+      if (field.equals(path)
+          || path.startsWith(field + SEPARATOR)
+          || field.startsWith(path + SEPARATOR)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Elimina de un objeto JSON los atributos que no se han pedido. Si el nodo es un array se
+   * filtran todos sus elementos.
+   *
+   * @param node Nodo JSON de un DTO o de una lista de DTOs.
+   * @param fields Campos normalizados.
+   */
+  public static void filter(JsonNode node, Set<String> fields) {
+    if (!fields.isEmpty()) {
+      filter(node, fields, "");
+    }
+  }
+
+  private static void filter(JsonNode node, Set<String> fields, String prefix) {
+    if (node instanceof ArrayNode array) {
+      array.forEach(element -> filter(element, fields, prefix));
+    } else if (node instanceof ObjectNode object) {
+      Iterator<Map.Entry<String, JsonNode>> iterator = object.fields();
+      while (iterator.hasNext()) {
+        Map.Entry<String, JsonNode> entry = iterator.next();
+        String path = prefix + entry.getKey();
+        if (!isRequired(fields, path)) {
+          iterator.remove();
+        } else {
+          filter(entry.getValue(), fields, path + SEPARATOR);
+        }
+      }
+    }
+  }
+
+  private static Field getField(Class<?> type, String name) {
+    return ReflectionUtil.getFields(type).stream()
+        .filter(field -> field.getName().equals(name))
+        .findFirst()
+        .orElse(null);
+  }
+
+  /** Tipo del valor de un campo, o el de sus elementos si es una colección. */
+  private static Class<?> getValueType(Field field) {
+    if (Collection.class.isAssignableFrom(field.getType())
+        && field.getGenericType() instanceof ParameterizedType parameterized
+        && parameterized.getActualTypeArguments()[0] instanceof Class<?> elementClass) {
+      return elementClass;
+    }
+    return field.getType();
+  }
+}
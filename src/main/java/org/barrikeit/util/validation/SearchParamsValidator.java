@@ -2,7 +2,7 @@ package org.barrikeit.util.validation;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import org.barrikeit.util.constants.UtilConstants;
+import org.barrikeit.util.filter.SearchPlanCache;
 
 public class SearchParamsValidator implements ConstraintValidator<SearchParams, String> {
   @Override
@@ -12,23 +12,8 @@ public class SearchParamsValidator implements ConstraintValidator<SearchParams,
       return true;
     }
 
-    // En cualquier otro caso valida el contenido de la cadena
-    return validarCadena(value);
-  }
-
-  private boolean validarParametro(String value) {
-    return value.matches(UtilConstants.EXPRESION_REGULAR_PARAMETROS);
-  }
-
-  private boolean validarCadena(String value) {
-    String[] array = value.split(UtilConstants.SEPARADOR_CAMPOS_BUSQUEDA);
-    boolean result = true;
-    for (String s : array) {
-      if (!validarParametro(s)) {
-        result = false;
-        break;
-      }
-    }
-    return result;
+    // En cualquier otro caso valida el contenido de la cadena, reutilizando el análisis cacheado
+    // que después usarán los constructores de filtros
+    return SearchPlanCache.parse(value).isValid();
   }
 }
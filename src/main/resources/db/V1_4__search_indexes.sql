@@ -0,0 +1,27 @@
+-- Extensiones para las búsquedas de texto: eliminación de acentos y trigramas
+CREATE EXTENSION IF NOT EXISTS unaccent WITH SCHEMA public;
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+-- unaccent() es STABLE porque depende del diccionario configurado, por lo que no puede usarse en
+-- un índice. Esta función fija el diccionario y se declara IMMUTABLE para poder indexarla.
+CREATE OR REPLACE FUNCTION f_unaccent(text)
+    RETURNS text
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+    STRICT
+AS
+$$
+SELECT public.unaccent('public.unaccent'::regdictionary, $1)
+$$;
+
+-- Índices de trigramas sobre la expresión lower(f_unaccent(columna)) que genera FilterSpecification
+CREATE INDEX IF NOT EXISTS ix_users_username_trgm ON users USING gin (lower(f_unaccent(username)) public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_users_name_trgm ON users USING gin (lower(f_unaccent(name)) public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_users_surname1_trgm ON users USING gin (lower(f_unaccent(surname1)) public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_users_surname2_trgm ON users USING gin (lower(f_unaccent(surname2)) public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_users_email_trgm ON users USING gin (lower(f_unaccent(email)) public.gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS ix_locations_location_trgm ON locations USING gin (lower(f_unaccent(location)) public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_locations_country_trgm ON locations USING gin (lower(f_unaccent(country)) public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_locations_city_trgm ON locations USING gin (lower(f_unaccent(city)) public.gin_trgm_ops);
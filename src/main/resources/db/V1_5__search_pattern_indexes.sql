@@ -0,0 +1,13 @@
+-- Índices para las búsquedas por prefijo (campo:valor*) sobre la expresión lower(f_unaccent(columna)).
+-- text_pattern_ops compara carácter a carácter, lo que permite resolver LIKE 'valor%' como un
+-- recorrido por rango independientemente de la collation de la base de datos.
+CREATE INDEX IF NOT EXISTS ix_users_username_prefix ON users (lower(f_unaccent(username)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS ix_users_email_prefix ON users (lower(f_unaccent(email)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS ix_users_name_prefix ON users (lower(f_unaccent(name)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS ix_users_surname1_prefix ON users (lower(f_unaccent(surname1)) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS ix_users_surname2_prefix ON users (lower(f_unaccent(surname2)) text_pattern_ops);
+
+-- Índices para las búsquedas por sufijo (campo:*valor), que se convierten en búsquedas por prefijo
+-- sobre la columna invertida: f_unaccent(reverse(lower(columna))) LIKE 'rolav%'.
+CREATE INDEX IF NOT EXISTS ix_users_username_suffix ON users (f_unaccent(reverse(lower(username))) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS ix_users_email_suffix ON users (f_unaccent(reverse(lower(email))) text_pattern_ops);
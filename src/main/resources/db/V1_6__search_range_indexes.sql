@@ -0,0 +1,4 @@
+-- Índices para las búsquedas por rango (campo:[desde..hasta]), que se compilan a un BETWEEN sobre
+-- la columna y se resuelven con un recorrido por rango del índice.
+CREATE INDEX IF NOT EXISTS ix_users_registration_date ON users (registration_date);
+CREATE INDEX IF NOT EXISTS ix_users_login_date ON users (login_date);
@@ -0,0 +1,30 @@
+-- Secuencias de los identificadores. Hibernate reserva bloques de identificadores con el
+-- optimizador pooled-lo: cada nextval devuelve el primer valor de un bloque del tamaño del
+-- INCREMENT BY, que debe coincidir con el allocationSize de la entidad.
+CREATE SEQUENCE IF NOT EXISTS locations_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 100;
+CREATE SEQUENCE IF NOT EXISTS roles_seq INCREMENT BY 10;
+CREATE SEQUENCE IF NOT EXISTS modules_seq INCREMENT BY 10;
+
+-- Las secuencias empiezan después de los identificadores existentes
+SELECT setval('locations_seq', COALESCE((SELECT MAX(id_location) FROM locations), 0) + 1, false);
+SELECT setval('users_seq', COALESCE((SELECT MAX(id_user) FROM users), 0) + 1, false);
+SELECT setval('roles_seq', COALESCE((SELECT MAX(id_role) FROM roles), 0) + 1, false);
+SELECT setval('modules_seq', COALESCE((SELECT MAX(id_module) FROM modules), 0) + 1, false);
+
+-- Las inserciones hechas directamente en SQL usan también las nuevas secuencias, de modo que no
+-- pueden repetir identificadores de los bloques reservados por la aplicación
+ALTER TABLE locations ALTER COLUMN id_location SET DEFAULT nextval('locations_seq');
+ALTER TABLE users ALTER COLUMN id_user SET DEFAULT nextval('users_seq');
+ALTER TABLE roles ALTER COLUMN id_role DROP IDENTITY IF EXISTS;
+ALTER TABLE roles ALTER COLUMN id_role SET DEFAULT nextval('roles_seq');
+ALTER TABLE modules ALTER COLUMN id_module DROP IDENTITY IF EXISTS;
+ALTER TABLE modules ALTER COLUMN id_module SET DEFAULT nextval('modules_seq');
+
+ALTER SEQUENCE locations_seq OWNED BY locations.id_location;
+ALTER SEQUENCE users_seq OWNED BY users.id_user;
+ALTER SEQUENCE roles_seq OWNED BY roles.id_role;
+ALTER SEQUENCE modules_seq OWNED BY modules.id_module;
+
+DROP SEQUENCE IF EXISTS locations_id_location_seq;
+DROP SEQUENCE IF EXISTS users_id_user_seq;
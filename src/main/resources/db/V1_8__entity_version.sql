@@ -0,0 +1,6 @@
+-- Columna de versión para el bloqueo optimista de las entidades (@Version en GenericEntity). Las
+-- filas existentes empiezan en la versión 0.
+ALTER TABLE locations ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE modules ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE roles ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,29 @@
+-- Columnas de auditoría de las entidades (createdAt y updatedAt en GenericEntity). Las filas
+-- existentes toman la fecha de la migración, por lo que la primera sincronización las incluye.
+ALTER TABLE locations ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE locations ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE modules ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE modules ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE roles ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE roles ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE users ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE users ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+
+-- La sincronización por cambios (updated_at > desde) se resuelve con un recorrido por rango
+CREATE INDEX IF NOT EXISTS ix_locations_updated_at ON locations (updated_at);
+CREATE INDEX IF NOT EXISTS ix_modules_updated_at ON modules (updated_at);
+CREATE INDEX IF NOT EXISTS ix_roles_updated_at ON roles (updated_at);
+CREATE INDEX IF NOT EXISTS ix_users_updated_at ON users (updated_at);
+
+-- Registro de las entidades eliminadas, que la sincronización por cambios devuelve como bajas
+CREATE SEQUENCE IF NOT EXISTS tombstones_seq INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS tombstones
+(
+    id_tombstone BIGINT                   NOT NULL DEFAULT nextval('tombstones_seq'), -- identificador
+    entity       VARCHAR(100)             NOT NULL, -- nombre de la entidad eliminada
+    entity_key   VARCHAR(100)             NOT NULL, -- código o identificador de la entidad
+    deleted_at   TIMESTAMP WITH TIME ZONE NOT NULL, -- fecha de la eliminación
+    CONSTRAINT pk_tombstones PRIMARY KEY (id_tombstone)
+);
+ALTER SEQUENCE tombstones_seq OWNED BY tombstones.id_tombstone;
+CREATE INDEX IF NOT EXISTS ix_tombstones_entity_deleted_at ON tombstones (entity, deleted_at);